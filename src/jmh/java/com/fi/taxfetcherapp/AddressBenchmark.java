@@ -0,0 +1,58 @@
+package com.fi.taxfetcherapp;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Address parsing on owner and site rows as they appear on detail pages:
+ * the uncached {@link AddressParser#extractAddress} and the memoizing
+ * {@link AddressParser#parse} once its cache is warm.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AddressBenchmark {
+    private static final String[] OWNER_ROWS = {
+            "Owner Name & Mailing Address: SHAHAN MICHAEL W & VENESSA H 7255 GLEN HL Drive, SAN ANTONIO, TX 78239",
+            "GARCIA JOSE L 1402 W MISTLETOE AVE SAN ANTONIO TX 78201-2214",
+            "Property Site Address: 7255 GLEN HL Road, SAN ANTONIO, TX 78239",
+            "MARTINEZ ROSA ESTATE OF PO BOX 12345 SAN ANTONIO, TX 78212",
+            "NGUYEN THANH & LINH 9930 BRAUN RD APT 1204, HELOTES, TX 78023",
+            "SMITH JOHN A 411 N MAIN ST STE 200 DALLAS TX 75201",
+            "RODRIGUEZ ENRIQUE JR 23 BRIARCLIFF Lane, CONVERSE, TX 78109-1907",
+            "UNKNOWN OWNER",
+    };
+
+    private AddressParser parser;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        parser = new AddressParser(10_000);
+        for (String row : OWNER_ROWS) {
+            parser.parse(row);
+        }
+    }
+
+    @Benchmark
+    public AddressParser.Address extractAddress() {
+        return AddressParser.extractAddress(OWNER_ROWS[next++ % OWNER_ROWS.length]);
+    }
+
+    @Benchmark
+    public AddressParser.Address parseCached() {
+        return parser.parse(OWNER_ROWS[next++ % OWNER_ROWS.length]);
+    }
+}
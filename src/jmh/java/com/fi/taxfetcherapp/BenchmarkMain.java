@@ -0,0 +1,30 @@
+package com.fi.taxfetcherapp;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar built by the {@code benchmarks} profile.
+ * Takes the usual JMH command line and always adds the GC profiler, so every
+ * result reports allocation rate alongside time.
+ *
+ * <pre>
+ * mvn -Pbenchmarks package
+ * java -jar target/TaxFetcherApp-1.0-SNAPSHOT-benchmarks.jar [jmh options] [benchmark regex]
+ * </pre>
+ */
+public final class BenchmarkMain {
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp() || commandLine.shouldList()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        new Runner(new OptionsBuilder().parent(commandLine).addProfiler(GCProfiler.class).build()).run();
+    }
+}
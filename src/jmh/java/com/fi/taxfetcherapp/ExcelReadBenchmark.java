@@ -0,0 +1,66 @@
+package com.fi.taxfetcherapp;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Streaming the input workbook with {@link ExcelRecordReader}, end to end, at
+ * several sizes. Inputs are generated from {@code Data50.xlsx} (run from the
+ * repository root or pass {@code -p template=<file>}) by
+ * {@link LoadTestInputGenerator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ExcelReadBenchmark {
+    @Param({"1000", "50000", "200000"})
+    public int rows;
+
+    @Param("Data50.xlsx")
+    public String template;
+
+    private Path input;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        input = Files.createTempFile("read-benchmark-", ".xlsx");
+        LoadTestInputGenerator.generate(Paths.get(template), rows, input);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(input);
+    }
+
+    @Benchmark
+    public int readAll(Blackhole blackhole) throws Exception {
+        int count = 0;
+        try (ExcelRecordReader reader = new ExcelRecordReader(input.toFile())) {
+            while (reader.hasNext()) {
+                blackhole.consume(reader.next());
+                count++;
+            }
+        }
+        return count;
+    }
+}
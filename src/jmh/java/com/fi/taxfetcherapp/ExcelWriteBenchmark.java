@@ -0,0 +1,76 @@
+package com.fi.taxfetcherapp;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Output throughput of {@link XlsxRecordWriter}: time per written row,
+ * including the final save, for the streaming (SXSSF) window and the
+ * in-memory workbook ({@code rowWindow=0}). Rows are the records of
+ * {@code Data50.xlsx} (run from the repository root or pass
+ * {@code -p template=<file>}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ExcelWriteBenchmark {
+    private static final int ROWS = 10_000;
+
+    @Param({"100", "0"})
+    public int rowWindow;
+
+    @Param("Data50.xlsx")
+    public String template;
+
+    private final List<TaxRecord> records = new ArrayList<>();
+    private Path output;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        try (ExcelRecordReader reader = new ExcelRecordReader(new File(template))) {
+            while (reader.hasNext()) {
+                records.add(reader.next());
+            }
+        }
+        output = Files.createTempFile("write-benchmark-", ".xlsx");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(output);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void writeRows() throws IOException {
+        try (XlsxRecordWriter writer = new XlsxRecordWriter(output, rowWindow, true,
+                LoanCalculator.forOptions(new RunOptions()))) {
+            for (int i = 0; i < ROWS; i++) {
+                writer.write(records.get(i % records.size()));
+            }
+            writer.finish();
+        }
+    }
+}
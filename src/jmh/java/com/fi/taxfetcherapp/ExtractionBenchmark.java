@@ -0,0 +1,115 @@
+package com.fi.taxfetcherapp;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Detail-page parsing and field extraction: {@code Jsoup.parse} alone, the
+ * compiled {@link ExtractionPlan} alone on a pre-parsed page, and the two
+ * together as a worker runs them. Pages cycle through a corpus, by default
+ * the bundled sample; pass {@code -p fixtures=<dir>} to use pages recorded
+ * with {@code --record-fixtures} instead.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExtractionBenchmark {
+    private static final String SAMPLE_PAGE = "/pages/bexar-050731040290.html";
+    private static final String BASE_URL = "https://bexar.acttax.com/act_webdev/bexar/showdetail2.jsp";
+
+    @Param("")
+    public String fixtures;
+
+    private List<byte[]> pages;
+    private List<Document> documents;
+    private RecordSchema schema;
+    private ExtractionPlan plan;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        pages = fixtures.isEmpty() ? List.of(readSample()) : readCorpus(Paths.get(fixtures));
+        documents = new ArrayList<>();
+        for (byte[] page : pages) {
+            documents.add(parse(page));
+        }
+        schema = RecordSchema.forInputHeaders(List.of("TAXID"));
+        plan = ExtractionPlan.forActDetailPage(new AddressParser(10_000));
+    }
+
+    @Benchmark
+    public Document parse() throws IOException {
+        return parse(nextPage());
+    }
+
+    @Benchmark
+    public TaxRecord extract() {
+        TaxRecord record = new TaxRecord(schema);
+        plan.extract(documents.get(next++ % documents.size()), record);
+        return record;
+    }
+
+    @Benchmark
+    public TaxRecord parseAndExtract() throws IOException {
+        TaxRecord record = new TaxRecord(schema);
+        plan.extract(parse(nextPage()), record);
+        return record;
+    }
+
+    private byte[] nextPage() {
+        return pages.get(next++ % pages.size());
+    }
+
+    private static Document parse(byte[] page) throws IOException {
+        return Jsoup.parse(new ByteArrayInputStream(page), "UTF-8", BASE_URL);
+    }
+
+    private static byte[] readSample() throws IOException {
+        try (InputStream in = ExtractionBenchmark.class.getResourceAsStream(SAMPLE_PAGE)) {
+            if (in == null) {
+                throw new IOException("Missing benchmark resource " + SAMPLE_PAGE);
+            }
+            return in.readAllBytes();
+        }
+    }
+
+    private static List<byte[]> readCorpus(Path directory) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            files = walk.filter(file -> file.toString().endsWith(".html")).sorted().collect(Collectors.toList());
+        }
+        if (files.isEmpty()) {
+            throw new IOException("No .html pages under " + directory);
+        }
+        List<byte[]> corpus = new ArrayList<>();
+        for (Path file : files) {
+            corpus.add(Files.readAllBytes(file));
+        }
+        return corpus;
+    }
+}
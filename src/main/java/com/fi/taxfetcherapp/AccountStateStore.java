@@ -0,0 +1,232 @@
+package com.fi.taxfetcherapp;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * What the last fetch of each account returned, kept between runs for
+ * incremental refreshes: when it was fetched, the page's HTTP validators
+ * (ETag and Last-Modified) and the values of the
+ * {@link RecordSchema#FETCHED_COLUMNS}. Keys are {@code county/account}. The
+ * whole store is held in memory during a run and rewritten atomically by
+ * {@link #save()}.
+ *
+ * <p>File format: a header line naming the stored columns, then one line per
+ * account: {@code key<TAB>fetchedAtMillis<TAB>etag<TAB>lastModified<TAB>values...<TAB>$},
+ * escaped like {@link RunJournal}. A store written with different columns is
+ * ignored, which costs one full refresh.
+ */
+final class AccountStateStore {
+    private static final String END_MARKER = "$";
+    private static final int FIXED_FIELDS = 4;
+
+    private final Path file;
+    private final Map<String, AccountState> states;
+
+    private AccountStateStore(Path file, Map<String, AccountState> states) {
+        this.file = file;
+        this.states = states;
+    }
+
+    static AccountStateStore open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve("accounts.state");
+        return new AccountStateStore(file, load(file));
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    int size() {
+        return states.size();
+    }
+
+    AccountState get(String key) {
+        return states.get(key);
+    }
+
+    void put(String key, AccountState state) {
+        states.put(key, state);
+    }
+
+    /**
+     * Adds the successful rows of an earlier output workbook for accounts the
+     * store does not know yet, using each row's FETCH_DATE as its fetch time.
+     * Returns the number of accounts added.
+     */
+    int seedFromWorkbook(File previousOutput, Function<TaxRecord, String> keyOf) throws Exception {
+        int added = 0;
+        try (ExcelRecordReader reader = new ExcelRecordReader(previousOutput)) {
+            while (reader.hasNext()) {
+                TaxRecord record = reader.next();
+                if (!"SUCCESS".equals(record.get(RecordSchema.FETCH_STATUS))
+                        || record.get(RecordSchema.ACCOUNT_NUMBER).isEmpty()) {
+                    continue;
+                }
+                long fetchedAt;
+                try {
+                    fetchedAt = LocalDateTime.parse(record.get(RecordSchema.FETCH_DATE))
+                            .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                } catch (DateTimeParseException e) {
+                    continue;
+                }
+                if (states.putIfAbsent(keyOf.apply(record), AccountState.of(record, fetchedAt, null, null)) == null) {
+                    added++;
+                }
+            }
+        }
+        return added;
+    }
+
+    void save() throws IOException {
+        Path temp = Files.createTempFile(file.getParent(), "accounts", ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                writer.write(header());
+                writer.write('\n');
+                StringBuilder line = new StringBuilder(512);
+                for (Map.Entry<String, AccountState> entry : states.entrySet()) {
+                    AccountState state = entry.getValue();
+                    line.setLength(0);
+                    RunJournal.appendEscaped(line, entry.getKey());
+                    line.append('\t').append(state.fetchedAt).append('\t');
+                    RunJournal.appendEscaped(line, state.etag);
+                    line.append('\t');
+                    RunJournal.appendEscaped(line, state.lastModified);
+                    for (String value : state.values) {
+                        line.append('\t');
+                        RunJournal.appendEscaped(line, value);
+                    }
+                    line.append('\t').append(END_MARKER).append('\n');
+                    writer.append(line);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static Map<String, AccountState> load(Path file) throws IOException {
+        Map<String, AccountState> states = new ConcurrentHashMap<>();
+        if (!Files.exists(file)) {
+            return states;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (!header().equals(reader.readLine())) {
+                return states;
+            }
+            int fields = FIXED_FIELDS + RecordSchema.FETCHED_COLUMNS.length + 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split("\t", -1);
+                if (parts.length != fields || !END_MARKER.equals(parts[fields - 1])) {
+                    continue;
+                }
+                String[] values = new String[RecordSchema.FETCHED_COLUMNS.length];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = RunJournal.unescape(parts[FIXED_FIELDS + i]);
+                }
+                try {
+                    states.put(RunJournal.unescape(parts[0]), new AccountState(Long.parseLong(parts[1]),
+                            emptyToNull(RunJournal.unescape(parts[2])), emptyToNull(RunJournal.unescape(parts[3])),
+                            values));
+                } catch (NumberFormatException e) {
+                    // Damaged line; that account is simply refetched
+                }
+            }
+        }
+        return states;
+    }
+
+    private static String header() {
+        StringBuilder header = new StringBuilder("#accounts-v1");
+        for (int column : RecordSchema.FETCHED_COLUMNS) {
+            header.append('\t').append(RecordSchema.OUTPUT.nameAt(column));
+        }
+        return header.toString();
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    /** One account's last fetch. Immutable. */
+    static final class AccountState {
+        private final long fetchedAt;
+        private final String etag;
+        private final String lastModified;
+        private final String[] values;
+
+        private AccountState(long fetchedAt, String etag, String lastModified, String[] values) {
+            this.fetchedAt = fetchedAt;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.values = values;
+        }
+
+        static AccountState of(TaxRecord record, long fetchedAt, String etag, String lastModified) {
+            String[] values = new String[RecordSchema.FETCHED_COLUMNS.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = record.get(RecordSchema.FETCHED_COLUMNS[i]);
+            }
+            return new AccountState(fetchedAt, etag, lastModified, values);
+        }
+
+        long getFetchedAt() {
+            return fetchedAt;
+        }
+
+        String getETag() {
+            return etag;
+        }
+
+        String getLastModified() {
+            return lastModified;
+        }
+
+        boolean isSuccess() {
+            return "SUCCESS".equals(get(RecordSchema.FETCH_STATUS));
+        }
+
+        /** Copies the stored fetched values onto {@code record}. */
+        void applyTo(TaxRecord record) {
+            for (int i = 0; i < values.length; i++) {
+                record.set(RecordSchema.FETCHED_COLUMNS[i], values[i]);
+            }
+        }
+
+        /** Whether {@code record} has the same fetched values, ignoring FETCH_DATE. */
+        boolean sameFieldsAs(TaxRecord record) {
+            for (int i = 0; i < values.length; i++) {
+                int column = RecordSchema.FETCHED_COLUMNS[i];
+                if (column != RecordSchema.FETCH_DATE && !values[i].equals(record.get(column))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private String get(int column) {
+            for (int i = 0; i < values.length; i++) {
+                if (RecordSchema.FETCHED_COLUMNS[i] == column) {
+                    return values[i];
+                }
+            }
+            return "";
+        }
+    }
+}
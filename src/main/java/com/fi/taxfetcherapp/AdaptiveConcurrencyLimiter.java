@@ -0,0 +1,113 @@
+package com.fi.taxfetcherapp;
+
+import java.time.Duration;
+
+/**
+ * Concurrency limit for requests to one host that adapts to how the host is
+ * coping (AIMD). While responses come back quickly and the limit is actually
+ * in use, it grows by one slot per limit's worth of successes. It shrinks by
+ * half when the host throttles or fails (429, 5xx, timeouts) and by a tenth
+ * when smoothed latency climbs past twice the host's unloaded latency, at
+ * most once per round trip so a burst of bad responses counts once. After a
+ * decrease the limit holds for a few round trips, or for as long as the
+ * host's {@code Retry-After} asked, before growing again; with fast
+ * responses additive increase would otherwise climb straight back into the
+ * throttle. The limit always stays within {@code [minLimit, maxLimit]};
+ * equal bounds give a fixed limit.
+ *
+ * <p>The unloaded latency is the lowest latency seen, allowed to creep up
+ * slowly so a host that becomes permanently slower is not punished forever.
+ */
+final class AdaptiveConcurrencyLimiter {
+    private static final double DROP_BACKOFF = 0.5;
+    private static final double LATENCY_BACKOFF = 0.9;
+    private static final double LATENCY_TOLERANCE = 2.0;
+    private static final double SMOOTHING = 0.2;
+    private static final double BASELINE_DRIFT = 0.001;
+    private static final int HOLD_ROUND_TRIPS = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private double limit;
+    private int inFlight;
+    private double smoothedNanos = Double.NaN;
+    private double baselineNanos = Double.NaN;
+    private long lastDecreaseNanos = System.nanoTime();
+    private long holdUntilNanos = System.nanoTime();
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid concurrency bounds: " + minLimit + "-" + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /** Blocks until a request may start; every acquire must be followed by exactly one outcome call. */
+    synchronized void acquire() throws InterruptedException {
+        while (inFlight >= (int) limit) {
+            wait();
+        }
+        inFlight++;
+    }
+
+    /** The request completed normally after {@code latencyNanos}. */
+    synchronized void onSuccess(long latencyNanos) {
+        // Only a limit that is being used has shown it is not too low
+        boolean saturated = inFlight >= (int) limit;
+        inFlight--;
+        smoothedNanos = Double.isNaN(smoothedNanos) ? latencyNanos
+                : smoothedNanos + SMOOTHING * (latencyNanos - smoothedNanos);
+        if (Double.isNaN(baselineNanos) || latencyNanos < baselineNanos) {
+            baselineNanos = latencyNanos;
+        } else {
+            baselineNanos += BASELINE_DRIFT * (latencyNanos - baselineNanos);
+        }
+
+        if (smoothedNanos > baselineNanos * LATENCY_TOLERANCE) {
+            decrease(LATENCY_BACKOFF, null);
+        } else if (saturated && System.nanoTime() - holdUntilNanos >= 0) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+        notifyAll();
+    }
+
+    /**
+     * The host throttled or failed the request: back off sharply.
+     * {@code retryAfter} is the wait the host asked for, or null.
+     */
+    synchronized void onDropped(Duration retryAfter) {
+        inFlight--;
+        decrease(DROP_BACKOFF, retryAfter);
+        notifyAll();
+    }
+
+    /** The request ended without saying anything about the host's load (e.g. a 404 or an interrupt). */
+    synchronized void onIgnored() {
+        inFlight--;
+        notifyAll();
+    }
+
+    synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    private void decrease(double ratio, Duration retryAfter) {
+        long now = System.nanoTime();
+        long roundTrip = Double.isNaN(smoothedNanos) ? 0 : (long) smoothedNanos;
+        long hold = Math.max(roundTrip * HOLD_ROUND_TRIPS, retryAfter != null ? retryAfter.toNanos() : 0);
+        if (now + hold - holdUntilNanos > 0) {
+            holdUntilNanos = now + hold;
+        }
+        if (now - lastDecreaseNanos < roundTrip) {
+            return;
+        }
+        lastDecreaseNanos = now;
+        limit = Math.max(minLimit, limit * ratio);
+    }
+}
@@ -0,0 +1,125 @@
+package com.fi.taxfetcherapp;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds and splits a US street address inside free text from a detail page.
+ * The matchers are compiled once, and results are memoized in a bounded LRU
+ * cache keyed by the whitespace-normalized input, since owner mailing
+ * addresses repeat across the many parcels held by investors and mortgage
+ * servicers. Thread-safe.
+ */
+final class AddressParser {
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern[] ADDRESS_PATTERNS = {
+            Pattern.compile("(\\d+\\s+[A-Za-z\\s]+(?:\\s+(?:St|Street|Ave|Avenue|Dr|Drive|Rd|Road|Ln|Lane|Blvd|Boulevard|Ct|Court|Pl|Place|Way)))[,\\s]+([A-Za-z\\s]+),\\s*([A-Z]{2})\\s*(\\d{5})"),
+            Pattern.compile("(\\d+\\s+[A-Za-z\\s]+)[,\\s]+([A-Za-z\\s]+),\\s*([A-Z]{2})\\s*(\\d{5})"),
+            Pattern.compile("([A-Za-z\\s]+(?:\\s+(?:St|Ave|Dr|Rd|Ln|Blvd|Ct|Pl|Way)))[,\\s]+([A-Za-z\\s]+),\\s*([A-Z]{2})\\s*(\\d{5})")
+    };
+
+    private final int capacity;
+    private final Map<String, Address> cache;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    AddressParser(int capacity) {
+        this.capacity = capacity;
+        this.cache = new LinkedHashMap<>(Math.min(capacity, 1024) * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Address> eldest) {
+                return size() > AddressParser.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the first address found in {@code text}, or {@link Address#NONE}.
+     * Repeated inputs are served from the cache.
+     */
+    Address parse(String text) {
+        if (text == null || text.isEmpty()) {
+            return Address.NONE;
+        }
+        String key = normalize(text);
+        synchronized (cache) {
+            Address cached = cache.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+        misses.incrementAndGet();
+        Address address = extractAddress(key);
+        synchronized (cache) {
+            cache.put(key, address);
+        }
+        return address;
+    }
+
+    /** Uncached match against the address patterns, most specific first. */
+    static Address extractAddress(String text) {
+        for (Pattern pattern : ADDRESS_PATTERNS) {
+            Matcher m = pattern.matcher(text);
+            if (m.find()) {
+                return new Address(
+                        normalize(m.group(1)),
+                        normalize(m.group(2)),
+                        m.group(3),
+                        m.group(4));
+            }
+        }
+        return Address.NONE;
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+
+    private static String normalize(String text) {
+        return WHITESPACE.matcher(text).replaceAll(" ").trim();
+    }
+
+    static final class Address {
+        static final Address NONE = new Address("", "", "", "");
+
+        private final String street;
+        private final String city;
+        private final String state;
+        private final String zip;
+
+        Address(String street, String city, String state, String zip) {
+            this.street = street;
+            this.city = city;
+            this.state = state;
+            this.zip = zip;
+        }
+
+        boolean isEmpty() {
+            return this == NONE;
+        }
+
+        String getStreet() {
+            return street;
+        }
+
+        String getCity() {
+            return city;
+        }
+
+        String getState() {
+            return state;
+        }
+
+        String getZip() {
+            return zip;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.fi.taxfetcherapp;
+
+/**
+ * Bexar County Tax Assessor-Collector, served by the ACT web application at
+ * bexar.acttax.com.
+ */
+public final class BexarCountyAdapter implements CountyAdapter {
+    private static final String BASE_URL = "https://bexar.acttax.com/act_webdev/bexar/showdetail2.jsp?can=";
+
+    @Override
+    public String getName() {
+        return "Bexar";
+    }
+
+    @Override
+    public String normalizeAccountNumber(String taxId) {
+        if (taxId.startsWith("ACCT")) {
+            return taxId.substring(4).trim();
+        }
+        return taxId.trim();
+    }
+
+    @Override
+    public String buildDetailUrl(String accountNumber) {
+        return BASE_URL + accountNumber;
+    }
+
+    @Override
+    public ExtractionPlan createExtractionPlan(AddressParser addressParser) {
+        return ExtractionPlan.forActDetailPage(addressParser);
+    }
+
+    @Override
+    public double getMaxRequestsPerSecond() {
+        return 10.0;
+    }
+}
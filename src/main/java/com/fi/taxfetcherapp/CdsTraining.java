@@ -0,0 +1,102 @@
+package com.fi.taxfetcherapp;
+
+import java.awt.GraphicsEnvironment;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import javax.swing.SwingUtilities;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+/**
+ * Training run for the class-data-sharing archive built by the {@code appcds}
+ * Maven profile. The JVM running it dumps every class it loaded into the
+ * archive, so it walks the paths a real launch takes: a small batch run per
+ * output format against an in-process {@link ReplayServer} (POI reading and
+ * writing, the HTTP client, jsoup parsing and field extraction) and
+ * the Swing frame. Without a display the UI classes are only loaded, not
+ * shown.
+ */
+public final class CdsTraining {
+    private static final int ROWS = 50;
+    private static final String PAGE = "<html><body><table>\n"
+            + "<tr><td>Account Number:</td><td>050731040290</td></tr>\n"
+            + "<tr><td><b>Owner Name &amp; Mailing Address:</b></td>"
+            + "<td>SMITH JOHN &amp; JANE 100 MAIN ST, SAN ANTONIO, TX 78201</td></tr>\n"
+            + "<tr><td>Property Site Address:</td><td>100 MAIN ST, SAN ANTONIO, TX 78201</td></tr>\n"
+            + "<tr><td>Legal Description:</td><td>CB 1000 BLK 1 LOT 1</td></tr>\n"
+            + "<tr><td>Current Tax Levy:</td><td>$1,200.00</td></tr>\n"
+            + "<tr><td>Total Amount Due:</td><td><span>$4,800.00</span></td></tr>\n"
+            + "<tr><td>Last Payment Amount for Current Year Taxes:</td><td>$0.00</td></tr>\n"
+            + "<tr><td>Land Value:</td><td>$40,000</td></tr>\n"
+            + "<tr><td>Improvement Value:</td><td>$110,000</td></tr>\n"
+            + "<tr><td>Total Market Value:</td><td>$150,000</td></tr>\n"
+            + "<tr><td>Assessed Value</td><td>$150,000 Value</td></tr>\n"
+            + "</table></body></html>\n";
+
+    private CdsTraining() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path work = Paths.get(args.length > 0 ? args[0] : "cds-training");
+        Files.createDirectories(work);
+
+        // Before the batch runs: the CLI switches the JVM to headless mode
+        if (!GraphicsEnvironment.isHeadless()) {
+            SwingUtilities.invokeAndWait(() -> {
+                TaxFetcherApp app = new TaxFetcherApp();
+                app.pack();
+                app.dispose();
+            });
+        } else {
+            Class.forName(TaxFetcherApp.class.getName(), false, CdsTraining.class.getClassLoader());
+        }
+
+        Path fixtures = work.resolve("fixtures");
+        Files.createDirectories(fixtures.resolve("bexar"));
+        Files.write(fixtures.resolve("bexar").resolve("050731040290.html"), PAGE.getBytes(StandardCharsets.UTF_8));
+        Path input = work.resolve("input.xlsx");
+        writeInput(input);
+
+        try (ReplayServer server = new ReplayServer(fixtures, 0, 0, 0, 0, 0, true)) {
+            server.start();
+            for (String format : RecordSinks.formats()) {
+                int status = TaxFetcherCli.run(new String[] {
+                        "--input", input.toString(),
+                        "--county", "bexar",
+                        "--output-dir", work.resolve("output-" + format).toString(),
+                        "--base-url", server.getBaseUrl(),
+                        "--format", format,
+                        "--rate", "1000",
+                        "--progress-file", work.resolve("progress-" + format + ".log").toString()
+                });
+                if (status != 0) {
+                    throw new IllegalStateException("Training run for " + format + " failed with status " + status);
+                }
+            }
+        }
+        System.out.println("Training run complete");
+    }
+
+    // One account repeated, so the runs also take the duplicate-row path
+    private static void writeInput(Path input) throws IOException {
+        try (Workbook workbook = new XSSFWorkbook();
+             OutputStream out = Files.newOutputStream(input)) {
+            Sheet sheet = workbook.createSheet("Sheet1");
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("JDX");
+            header.createCell(1).setCellValue("TAXID");
+            for (int i = 1; i <= ROWS; i++) {
+                Row row = sheet.createRow(i);
+                row.createCell(0).setCellValue("Bexar");
+                row.createCell(1).setCellValue("050731040290");
+            }
+            workbook.write(out);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.fi.taxfetcherapp;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-host circuit breaker over a sliding window of recent request outcomes.
+ * When the failure rate in the window crosses the threshold the circuit opens
+ * and every worker calling {@link #acquirePermission()} waits out the cooldown
+ * instead of burning through the remaining queue against a failing server.
+ * After the cooldown a single trial request is let through: success closes
+ * the circuit, failure reopens it with a doubled cooldown.
+ *
+ * <p>Callers hand the {@link Permission} they were given back with the
+ * outcome, so only the trial's own outcome decides a half-open circuit.
+ * Requests admitted before the circuit opened that finish late are not
+ * counted.
+ */
+final class CircuitBreaker {
+    private enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /** How a request was let through: normally, or as the half-open trial. */
+    enum Permission { REGULAR, TRIAL }
+
+    private final String host;
+    private final boolean[] window;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long baseCooldownNanos;
+    private final long maxCooldownNanos;
+
+    private State state = State.CLOSED;
+    private int windowPosition;
+    private int windowCount;
+    private int windowFailures;
+    private long openUntil;
+    private long cooldownNanos;
+    private boolean trialInFlight;
+
+    CircuitBreaker(String host, int windowSize, int minimumCalls, double failureRateThreshold,
+                   Duration cooldown, Duration maxCooldown) {
+        this.host = host;
+        this.window = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.baseCooldownNanos = cooldown.toNanos();
+        this.maxCooldownNanos = maxCooldown.toNanos();
+        this.cooldownNanos = baseCooldownNanos;
+    }
+
+    String getHost() {
+        return host;
+    }
+
+    synchronized boolean isOpen() {
+        return state != State.CLOSED;
+    }
+
+    /**
+     * Blocks while the circuit is open or a half-open trial is in flight.
+     */
+    synchronized Permission acquirePermission() throws InterruptedException {
+        Permission permission;
+        while ((permission = tryAcquirePermission()) == null) {
+            long remaining = openUntil - System.nanoTime();
+            if (state == State.OPEN && remaining > 0) {
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            } else {
+                wait();
+            }
+        }
+        return permission;
+    }
+
+    /** Like {@link #acquirePermission()}, but returns null instead of waiting. */
+    synchronized Permission tryAcquirePermission() {
+        if (state == State.CLOSED) {
+            return Permission.REGULAR;
+        }
+        if (state == State.OPEN) {
+            if (openUntil - System.nanoTime() > 0) {
+                return null;
+            }
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (!trialInFlight) {
+            trialInFlight = true;
+            return Permission.TRIAL;
+        }
+        return null;
+    }
+
+    synchronized void onSuccess(Permission permission) {
+        if (isTrial(permission)) {
+            state = State.CLOSED;
+            cooldownNanos = baseCooldownNanos;
+            resetWindow();
+            notifyAll();
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    /**
+     * Records a server-side failure.
+     *
+     * @return true if this failure opened the circuit
+     */
+    synchronized boolean onFailure(Permission permission) {
+        if (isTrial(permission)) {
+            cooldownNanos = Math.min(maxCooldownNanos, cooldownNanos * 2);
+            open();
+            return true;
+        }
+        if (state != State.CLOSED) {
+            // Admitted before the circuit opened; the circuit already knows
+            return false;
+        }
+        record(true);
+        if (state == State.CLOSED && windowCount >= minimumCalls
+                && (double) windowFailures / windowCount >= failureRateThreshold) {
+            open();
+            return true;
+        }
+        return false;
+    }
+
+    /** Releases a half-open trial whose outcome says nothing about the host (e.g. interruption). */
+    synchronized void onIgnored(Permission permission) {
+        if (isTrial(permission) && trialInFlight) {
+            trialInFlight = false;
+            notifyAll();
+        }
+    }
+
+    /** Remaining time the circuit stays open, or zero. */
+    synchronized Duration getRemainingCooldown() {
+        return state == State.OPEN ? Duration.ofNanos(Math.max(0, openUntil - System.nanoTime())) : Duration.ZERO;
+    }
+
+    private boolean isTrial(Permission permission) {
+        return permission == Permission.TRIAL && state == State.HALF_OPEN;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openUntil = System.nanoTime() + cooldownNanos;
+        trialInFlight = false;
+        resetWindow();
+        notifyAll();
+    }
+
+    private void record(boolean failure) {
+        if (windowCount == window.length) {
+            if (window[windowPosition]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowPosition] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowPosition = (windowPosition + 1) % window.length;
+    }
+
+    private void resetWindow() {
+        windowPosition = 0;
+        windowCount = 0;
+        windowFailures = 0;
+    }
+}
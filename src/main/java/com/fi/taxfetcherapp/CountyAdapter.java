@@ -0,0 +1,36 @@
+package com.fi.taxfetcherapp;
+
+/**
+ * Service-provider interface for a county tax site. An adapter knows how to
+ * turn an input TAXID into the site's account number, where that account's
+ * detail page lives, how to extract fields from it, and how hard its host may
+ * be hit. Implementations are discovered with {@link java.util.ServiceLoader}
+ * through {@code META-INF/services/com.fi.taxfetcherapp.CountyAdapter} and
+ * must have a public no-argument constructor.
+ *
+ * <p>The interface is internal to this package, as are {@link ExtractionPlan}
+ * and {@link AddressParser} in its signature: adapters are added alongside
+ * the existing ones and registered in the same services file, not supplied
+ * by other jars.
+ */
+interface CountyAdapter {
+    /** County name as it appears in the UI, the CLI and the input's JDX column. */
+    String getName();
+
+    /**
+     * Normalizes a raw TAXID from the input sheet to the site's account
+     * number, or returns null if the value cannot be an account.
+     */
+    String normalizeAccountNumber(String taxId);
+
+    String buildDetailUrl(String accountNumber);
+
+    /** Builds the field-extraction rules for this county's detail page layout. */
+    ExtractionPlan createExtractionPlan(AddressParser addressParser);
+
+    /**
+     * Politeness ceiling for this county's host. A run's requests-per-second
+     * setting is capped at this value.
+     */
+    double getMaxRequestsPerSecond();
+}
@@ -0,0 +1,55 @@
+package com.fi.taxfetcherapp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Registry of the {@link CountyAdapter}s found on the classpath, looked up by
+ * case-insensitive county name.
+ */
+final class CountyAdapters {
+    private static final Map<String, CountyAdapter> ADAPTERS = load();
+
+    private CountyAdapters() {
+    }
+
+    /**
+     * The adapter for the named county, or null if none is installed. A
+     * trailing "County" is ignored so JDX values like "BEXAR COUNTY" match.
+     */
+    static CountyAdapter find(String county) {
+        if (county == null) {
+            return null;
+        }
+        String key = county.trim().toLowerCase(Locale.ROOT);
+        if (key.endsWith(" county")) {
+            key = key.substring(0, key.length() - " county".length()).trim();
+        }
+        return ADAPTERS.get(key);
+    }
+
+    static List<CountyAdapter> all() {
+        return Collections.unmodifiableList(new ArrayList<>(ADAPTERS.values()));
+    }
+
+    static List<String> names() {
+        List<String> names = new ArrayList<>();
+        for (CountyAdapter adapter : ADAPTERS.values()) {
+            names.add(adapter.getName());
+        }
+        return names;
+    }
+
+    private static Map<String, CountyAdapter> load() {
+        Map<String, CountyAdapter> adapters = new LinkedHashMap<>();
+        for (CountyAdapter adapter : ServiceLoader.load(CountyAdapter.class, CountyAdapters.class.getClassLoader())) {
+            adapters.putIfAbsent(adapter.getName().toLowerCase(Locale.ROOT), adapter);
+        }
+        return adapters;
+    }
+}
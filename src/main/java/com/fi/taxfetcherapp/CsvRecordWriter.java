@@ -0,0 +1,66 @@
+package com.fi.taxfetcherapp;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Writes records as RFC 4180 CSV: a header line with the output column names,
+ * then one CRLF-terminated line per record. Fields holding a comma, quote or
+ * line break are quoted, with quotes doubled. Derived loan columns are plain
+ * numbers without currency signs or separators, ready for a bulk loader.
+ */
+final class CsvRecordWriter extends TextRecordWriter {
+
+    CsvRecordWriter(Path outputFile, LoanCalculator calculator) throws IOException {
+        super(outputFile, false, calculator);
+        writeHeader();
+    }
+
+    @Override
+    void appendHeader(StringBuilder line) {
+        for (int i = 0; i < HEADERS.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            appendField(line, HEADERS[i]);
+        }
+        line.append("\r\n");
+    }
+
+    @Override
+    void appendRecord(StringBuilder line, TaxRecord record) {
+        for (int i = 0; i < HEADERS.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            double derived = derived(i);
+            if (Double.isNaN(derived)) {
+                appendField(line, record.get(i));
+            } else {
+                appendDecimal(line, i, derived);
+            }
+        }
+        line.append("\r\n");
+    }
+
+    private static void appendField(StringBuilder line, String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+}
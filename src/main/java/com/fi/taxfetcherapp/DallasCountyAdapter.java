@@ -0,0 +1,44 @@
+package com.fi.taxfetcherapp;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Dallas County Tax Office, served by the same ACT web application as Bexar
+ * at www.dallasact.com. Dallas account numbers are alphanumeric and are often
+ * written with dashes or spaces in lead lists, so those are stripped.
+ */
+public final class DallasCountyAdapter implements CountyAdapter {
+    private static final String BASE_URL = "https://www.dallasact.com/act_webdev/dallas/showdetail2.jsp?can=";
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^A-Za-z0-9]");
+
+    @Override
+    public String getName() {
+        return "Dallas";
+    }
+
+    @Override
+    public String normalizeAccountNumber(String taxId) {
+        String trimmed = taxId.trim();
+        if (trimmed.regionMatches(true, 0, "ACCT", 0, 4)) {
+            trimmed = trimmed.substring(4);
+        }
+        String accountNumber = NON_ALPHANUMERIC.matcher(trimmed).replaceAll("").toUpperCase(Locale.ROOT);
+        return accountNumber.isEmpty() ? null : accountNumber;
+    }
+
+    @Override
+    public String buildDetailUrl(String accountNumber) {
+        return BASE_URL + accountNumber;
+    }
+
+    @Override
+    public ExtractionPlan createExtractionPlan(AddressParser addressParser) {
+        return ExtractionPlan.forActDetailPage(addressParser);
+    }
+
+    @Override
+    public double getMaxRequestsPerSecond() {
+        return 5.0;
+    }
+}
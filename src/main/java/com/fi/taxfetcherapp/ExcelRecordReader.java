@@ -0,0 +1,192 @@
+package com.fi.taxfetcherapp;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+/**
+ * Streams the rows of the first sheet of an .xlsx file through POI's SAX event
+ * model. Parsing runs on a background thread and hands records over a small
+ * bounded queue, so the caller can start on row 1 while the rest of the sheet
+ * is still being read, and heap use does not grow with the size of the file.
+ * The first row of the sheet is taken as the header and becomes the
+ * {@link RecordSchema} shared by every record.
+ */
+final class ExcelRecordReader implements Iterator<TaxRecord>, AutoCloseable {
+    private static final int QUEUE_CAPACITY = 256;
+    private static final Object END = new Object();
+
+    private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread parserThread;
+    private volatile boolean closed;
+    private volatile int rowsRead;
+    private volatile boolean exhausted;
+    private Object next;
+
+    ExcelRecordReader(File file) {
+        parserThread = new Thread(() -> parse(file), "excel-reader-" + file.getName());
+        parserThread.setDaemon(true);
+        parserThread.start();
+    }
+
+    /** Number of data rows parsed so far. */
+    int getRowsRead() {
+        return rowsRead;
+    }
+
+    /** True once the whole sheet has been parsed, at which point {@link #getRowsRead()} is the total. */
+    boolean isExhausted() {
+        return exhausted;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while reading Excel rows", e);
+            }
+        }
+        if (next instanceof RuntimeException) {
+            RuntimeException failure = (RuntimeException) next;
+            next = END;
+            throw failure;
+        }
+        return next != END;
+    }
+
+    @Override
+    public TaxRecord next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        TaxRecord record = (TaxRecord) next;
+        next = null;
+        return record;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        parserThread.interrupt();
+    }
+
+    private void parse(File file) {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader xssfReader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = xssfReader.getStylesTable();
+
+            Iterator<InputStream> sheets = xssfReader.getSheetsData();
+            if (!sheets.hasNext()) {
+                throw new IOException("Workbook has no sheets: " + file.getName());
+            }
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(
+                        styles, strings, new RowHandler(), new LegacyCellFormatter(), true));
+                parser.parse(new InputSource(sheet));
+            }
+            exhausted = true;
+            offer(END);
+        } catch (Exception e) {
+            if (!closed) {
+                offerQuietly(new IllegalStateException("Failed to read Excel file " + file.getName()
+                        + ": " + e.getMessage(), e));
+            }
+        }
+    }
+
+    private void offer(Object item) throws InterruptedException {
+        if (closed) {
+            throw new InterruptedException("Reader closed");
+        }
+        queue.put(item);
+    }
+
+    private void offerQuietly(Object item) {
+        try {
+            queue.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private final class RowHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final List<String> headers = new ArrayList<>();
+        private RecordSchema schema;
+        private int[] schemaColumns;
+        private TaxRecord record;
+
+        @Override
+        public void startRow(int rowNum) {
+            record = schema != null ? new TaxRecord(schema) : null;
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = new CellReference(cellReference).getCol();
+            String value = formattedValue == null ? "" : formattedValue.trim();
+            if (schema == null) {
+                while (headers.size() <= column) {
+                    headers.add("");
+                }
+                headers.set(column, value);
+            } else if (column < schemaColumns.length && schemaColumns[column] >= 0) {
+                record.set(schemaColumns[column], value);
+            }
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (schema == null) {
+                // Header row: resolve each input column to its schema slot once
+                schema = RecordSchema.forInputHeaders(headers);
+                schemaColumns = new int[headers.size()];
+                for (int i = 0; i < headers.size(); i++) {
+                    schemaColumns[i] = headers.get(i).isEmpty() ? -1 : schema.indexOf(headers.get(i));
+                }
+                return;
+            }
+            rowsRead++;
+            try {
+                offer(record);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException("Excel reader closed", e);
+            }
+        }
+    }
+
+    // Keeps the values the old usermodel reader produced: whole numbers for numeric
+    // cells and Date.toString() for date-formatted cells.
+    private static final class LegacyCellFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                return DateUtil.getJavaDate(value).toString();
+            }
+            return String.valueOf((long) value);
+        }
+    }
+}
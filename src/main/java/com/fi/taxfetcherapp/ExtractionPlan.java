@@ -0,0 +1,243 @@
+package com.fi.taxfetcherapp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+/**
+ * Compiled set of field-extraction rules for a detail page. Rules are declared
+ * as data (which cells they look at, the label text that identifies them, an
+ * optional value guard and a post-processing step) with every pattern compiled
+ * once. {@link #extract} walks the page's td/span cells a single time,
+ * computing each cell's text once, and offers the cell to every rule that is
+ * still looking, instead of running a separate full-document
+ * {@code :contains} scan per field.
+ */
+final class ExtractionPlan {
+    static final String UNABLE_TO_EXTRACT = "Unable to extract";
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern TAX_AMOUNT = Pattern.compile("\\$\\d+[,\\d]*\\.\\d{2}");
+    private static final Pattern DOLLAR_AMOUNT = Pattern.compile("\\$\\d+[,\\d]*");
+    private static final Pattern NON_DECIMAL = Pattern.compile("[^0-9.]");
+    private static final Pattern LEADING_ZEROS = Pattern.compile("^0+");
+    private static final Pattern NON_DIGIT = Pattern.compile("[^0-9]");
+
+    private static final Set<String> TD = Set.of("td");
+    private static final Set<String> TD_OR_SPAN = Set.of("td", "span");
+
+    private final List<Rule> rules;
+
+    private ExtractionPlan(List<Rule> rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * Rules for the ACT {@code showdetail2.jsp} layout used by Bexar and
+     * Dallas. Owner and property rows are split into address parts with
+     * {@code addressParser}.
+     */
+    static ExtractionPlan forActDetailPage(AddressParser addressParser) {
+        List<Rule> rules = new ArrayList<>();
+        rules.add(new RowTextRule(RecordSchema.CURRENT_OWNER_NAME, new String[]{"owner name", "owner"},
+                addressParser, new int[]{RecordSchema.CURRENT_OWNER_STREET, RecordSchema.CURRENT_OWNER_CITY,
+                        RecordSchema.CURRENT_OWNER_STATE, RecordSchema.CURRENT_OWNER_ZIP}));
+        rules.add(new RowTextRule(RecordSchema.CURRENT_PROP_ADDRESS, new String[]{"property address", "property"},
+                addressParser, new int[]{RecordSchema.CURRENT_PROP_STREET, RecordSchema.CURRENT_PROP_CITY,
+                        RecordSchema.CURRENT_PROP_STATE, RecordSchema.CURRENT_PROP_ZIP}));
+        rules.add(new CellValueRule(RecordSchema.CURRENT_TAX_DUE, TD_OR_SPAN, new String[]{"$"}, TAX_AMOUNT,
+                text -> {
+                    String amount = LEADING_ZEROS.matcher(NON_DECIMAL.matcher(text).replaceAll("")).replaceFirst("");
+                    return amount.isEmpty() ? "" : "$" + amount;
+                }));
+        rules.add(new RowTextRule(RecordSchema.LAST_PAYMENT_INFO, new String[]{"payment", "last payment"},
+                null, null));
+        rules.add(new SiblingLabelledRule(new String[]{"value", "assessed"}, DOLLAR_AMOUNT,
+                text -> "$" + NON_DIGIT.matcher(text).replaceAll(""),
+                labelledFields(
+                        "land", RecordSchema.CURRENT_LAND_VALUE,
+                        "improvement", RecordSchema.CURRENT_IMPROVEMENT_VALUE,
+                        "improved", RecordSchema.CURRENT_IMPROVEMENT_VALUE,
+                        "total", RecordSchema.CURRENT_TOTAL_VALUE,
+                        "market", RecordSchema.CURRENT_TOTAL_VALUE),
+                RecordSchema.CURRENT_TOTAL_VALUE));
+        return new ExtractionPlan(rules);
+    }
+
+    void extract(Document doc, TaxRecord record) {
+        Rule[] active = rules.toArray(new Rule[0]);
+        int remaining = active.length;
+
+        for (Element cell : doc.getAllElements()) {
+            String tag = cell.normalName();
+            if (!"td".equals(tag) && !"span".equals(tag)) {
+                continue;
+            }
+            String text = null;
+            String lowerText = null;
+            for (int i = 0; i < active.length; i++) {
+                Rule rule = active[i];
+                if (rule == null || !rule.tags.contains(tag)) {
+                    continue;
+                }
+                if (text == null) {
+                    text = cell.text();
+                    lowerText = text.toLowerCase(Locale.ROOT);
+                }
+                if (!rule.matchesLabel(lowerText)) {
+                    continue;
+                }
+                try {
+                    if (rule.apply(cell, text, record)) {
+                        active[i] = null;
+                        remaining--;
+                    }
+                } catch (RuntimeException e) {
+                    record.set(rule.failureField, UNABLE_TO_EXTRACT);
+                    active[i] = null;
+                    remaining--;
+                }
+            }
+            if (remaining == 0) {
+                break;
+            }
+        }
+    }
+
+    static String cleanText(String text) {
+        if (text == null) return "";
+        return WHITESPACE.matcher(text).replaceAll(" ").trim();
+    }
+
+    private static Map<String, Integer> labelledFields(Object... keywordFieldPairs) {
+        Map<String, Integer> fields = new LinkedHashMap<>();
+        for (int i = 0; i < keywordFieldPairs.length; i += 2) {
+            fields.put((String) keywordFieldPairs[i], (Integer) keywordFieldPairs[i + 1]);
+        }
+        return fields;
+    }
+
+    private abstract static class Rule {
+        final Set<String> tags;
+        final String[] labels;
+        final int failureField;
+
+        Rule(Set<String> tags, String[] labels, int failureField) {
+            this.tags = tags;
+            this.labels = Arrays.stream(labels).map(label -> label.toLowerCase(Locale.ROOT)).toArray(String[]::new);
+            this.failureField = failureField;
+        }
+
+        boolean matchesLabel(String lowerText) {
+            for (String label : labels) {
+                if (lowerText.contains(label)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /** Applies the rule to a matching cell; returns true once the rule is satisfied. */
+        abstract boolean apply(Element cell, String text, TaxRecord record);
+    }
+
+    // First labelled cell wins; the field is the whole table row's text, optionally split into address parts.
+    private static final class RowTextRule extends Rule {
+        private final int field;
+        private final AddressParser addressParser;
+        private final int[] addressFields;
+
+        RowTextRule(int field, String[] labels, AddressParser addressParser, int[] addressFields) {
+            super(TD, labels, field);
+            this.field = field;
+            this.addressParser = addressParser;
+            this.addressFields = addressFields;
+        }
+
+        @Override
+        boolean apply(Element cell, String text, TaxRecord record) {
+            String rowText = cell.parent().text();
+            record.set(field, cleanText(rowText));
+
+            if (addressParser != null) {
+                AddressParser.Address address = addressParser.parse(rowText);
+                if (!address.isEmpty()) {
+                    record.set(addressFields[0], address.getStreet());
+                    record.set(addressFields[1], address.getCity());
+                    record.set(addressFields[2], address.getState());
+                    record.set(addressFields[3], address.getZip());
+                }
+            }
+            return true;
+        }
+    }
+
+    // First labelled cell whose text passes the guard and post-processes to a non-empty value wins.
+    private static final class CellValueRule extends Rule {
+        private final int field;
+        private final Pattern guard;
+        private final UnaryOperator<String> transform;
+
+        CellValueRule(int field, Set<String> tags, String[] labels, Pattern guard, UnaryOperator<String> transform) {
+            super(tags, labels, field);
+            this.field = field;
+            this.guard = guard;
+            this.transform = transform;
+        }
+
+        @Override
+        boolean apply(Element cell, String text, TaxRecord record) {
+            String trimmed = text.trim();
+            if (!guard.matcher(trimmed).find()) {
+                return false;
+            }
+            String value = transform.apply(trimmed);
+            if (value.isEmpty()) {
+                return false;
+            }
+            record.set(field, value);
+            return true;
+        }
+    }
+
+    // Every labelled cell passing the guard is routed to a field by keywords in the preceding sibling cell.
+    private static final class SiblingLabelledRule extends Rule {
+        private final Pattern guard;
+        private final UnaryOperator<String> transform;
+        private final Map<String, Integer> fieldsByKeyword;
+
+        SiblingLabelledRule(String[] labels, Pattern guard, UnaryOperator<String> transform,
+                            Map<String, Integer> fieldsByKeyword, int failureField) {
+            super(TD, labels, failureField);
+            this.guard = guard;
+            this.transform = transform;
+            this.fieldsByKeyword = fieldsByKeyword;
+        }
+
+        @Override
+        boolean apply(Element cell, String text, TaxRecord record) {
+            String trimmed = text.trim();
+            Element labelCell = cell.previousElementSibling();
+            if (!trimmed.contains("$") || labelCell == null || !guard.matcher(trimmed).find()) {
+                return false;
+            }
+            String label = cleanText(labelCell.text()).toLowerCase(Locale.ROOT);
+            for (Map.Entry<String, Integer> mapping : fieldsByKeyword.entrySet()) {
+                if (label.contains(mapping.getKey())) {
+                    record.set(mapping.getValue(), transform.apply(trimmed));
+                    break;
+                }
+            }
+            // Later cells may carry the other value types, so keep looking
+            return false;
+        }
+    }
+}
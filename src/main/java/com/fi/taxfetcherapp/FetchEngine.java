@@ -0,0 +1,155 @@
+package com.fi.taxfetcherapp;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Two-stage pipeline between the input reader and a single ordered writer.
+ * Each input first runs an I/O stage on the shared executor, with at most
+ * {@code maxInFlight} I/O stages running at once, then a CPU stage on a
+ * separate fixed pool of {@code cpuThreads}; the two limits are tuned
+ * independently. Results are handed to the consumer in input order on the
+ * calling thread.
+ *
+ * <p>Every stage boundary is bounded: the calling thread stops pulling inputs
+ * while all I/O permits are taken, the CPU pool's queue holds at most the
+ * reorder window, and completed results waiting behind a slow head are capped
+ * at a few multiples of the in-flight limit. A slow site or a slow writer
+ * therefore stalls the reader instead of growing the heap.
+ *
+ * <p>An I/O stage that has to wait rather than work, such as backing off
+ * before a retry, hands its {@link Permit} back for the wait, so stages stuck
+ * on one failing host do not hold every permit while other hosts could be
+ * fetched.
+ */
+final class FetchEngine {
+    private final ExecutorService ioExecutor;
+    private final int maxInFlight;
+    private final int cpuThreads;
+    private final int reorderWindow;
+    private volatile int pendingCount;
+    private volatile ThreadPoolExecutor cpuExecutor;
+
+    FetchEngine(ExecutorService ioExecutor, int maxInFlight, int cpuThreads) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1: " + maxInFlight);
+        }
+        if (cpuThreads < 1) {
+            throw new IllegalArgumentException("cpuThreads must be at least 1: " + cpuThreads);
+        }
+        this.ioExecutor = ioExecutor;
+        this.maxInFlight = maxInFlight;
+        this.cpuThreads = cpuThreads;
+        this.reorderWindow = maxInFlight * 4;
+    }
+
+    /** Tasks submitted but not yet handed to the consumer, for monitoring. */
+    int getPendingCount() {
+        return pendingCount;
+    }
+
+    /** Results of the I/O stage waiting for a CPU thread, for monitoring. */
+    int getCpuQueueDepth() {
+        ThreadPoolExecutor executor = cpuExecutor;
+        return executor == null ? 0 : executor.getQueue().size();
+    }
+
+    <T, S, R> void run(Iterable<T> inputs, BiFunction<T, Permit, S> ioStage, Function<S, R> cpuStage,
+                       Consumer<R> orderedConsumer) throws InterruptedException, ExecutionException {
+        Semaphore ioPermits = new Semaphore(maxInFlight);
+        Deque<CompletableFuture<R>> pending = new ArrayDeque<>();
+        // Never rejects: at most reorderWindow items are pending in the whole pipeline
+        ThreadPoolExecutor cpu = new ThreadPoolExecutor(cpuThreads, cpuThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(reorderWindow), runnable -> {
+                    Thread thread = new Thread(runnable, "tax-parse-worker");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        cpuExecutor = cpu;
+
+        try {
+            for (T input : inputs) {
+                ioPermits.acquire();
+                StagePermit permit = new StagePermit(ioPermits);
+                CompletableFuture<S> ioResult;
+                try {
+                    ioResult = CompletableFuture.supplyAsync(() -> {
+                        try {
+                            return ioStage.apply(input, permit);
+                        } finally {
+                            permit.release();
+                        }
+                    }, ioExecutor);
+                } catch (RuntimeException e) {
+                    permit.release();
+                    throw e;
+                }
+                pending.addLast(ioResult.thenApplyAsync(cpuStage, cpu));
+                pendingCount = pending.size();
+
+                // Emit whatever has completed at the head so results stream out in order
+                while (!pending.isEmpty()
+                        && (pending.peekFirst().isDone() || pending.size() >= reorderWindow)) {
+                    orderedConsumer.accept(pending.removeFirst().get());
+                    pendingCount = pending.size();
+                }
+            }
+
+            while (!pending.isEmpty()) {
+                orderedConsumer.accept(pending.removeFirst().get());
+                pendingCount = pending.size();
+            }
+        } finally {
+            pendingCount = 0;
+            for (CompletableFuture<R> future : pending) {
+                future.cancel(true);
+            }
+            cpu.shutdownNow();
+            cpuExecutor = null;
+        }
+    }
+
+    /** An I/O stage's hold on one of the in-flight permits; used only by that stage's thread. */
+    interface Permit {
+        /** Gives the permit back while the stage waits instead of working. Does nothing if already released. */
+        void release();
+
+        /** Takes a permit again after {@link #release()}, waiting for one to come free. */
+        void reacquire() throws InterruptedException;
+    }
+
+    private static final class StagePermit implements Permit {
+        private final Semaphore permits;
+        private boolean held = true;
+
+        StagePermit(Semaphore permits) {
+            this.permits = permits;
+        }
+
+        @Override
+        public void release() {
+            if (held) {
+                held = false;
+                permits.release();
+            }
+        }
+
+        @Override
+        public void reacquire() throws InterruptedException {
+            if (!held) {
+                permits.acquire();
+                held = true;
+            }
+        }
+    }
+}
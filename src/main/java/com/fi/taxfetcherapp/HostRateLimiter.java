@@ -0,0 +1,68 @@
+package com.fi.taxfetcherapp;
+
+import java.net.URI;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket politeness limiter keyed by host. Each host gets its own bucket
+ * so that fetches against different servers never wait on each other.
+ */
+final class HostRateLimiter {
+    private final double permitsPerSecond;
+    private final double burst;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    HostRateLimiter(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive: " + permitsPerSecond);
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = Math.max(1, burst);
+    }
+
+    /**
+     * Blocks until a request to the given host is allowed.
+     */
+    void acquire(String host) throws InterruptedException {
+        TokenBucket bucket = buckets.computeIfAbsent(host, h -> new TokenBucket(permitsPerSecond, burst));
+        long waitNanos = bucket.reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    static String hostOf(String url) {
+        String host = URI.create(url).getHost();
+        return host != null ? host.toLowerCase(Locale.ROOT) : "";
+    }
+
+    private static final class TokenBucket {
+        private final double ratePerNano;
+        private final double capacity;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(double permitsPerSecond, double capacity) {
+            this.ratePerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = capacity;
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+        }
+
+        // Takes one token, going into debt if necessary, and returns how long the
+        // caller must wait before its token is actually available.
+        synchronized long reserve() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * ratePerNano);
+            lastRefill = now;
+            tokens -= 1;
+            if (tokens >= 0) {
+                return 0;
+            }
+            return (long) Math.ceil(-tokens / ratePerNano);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.fi.taxfetcherapp;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Shared HTTP layer for detail-page fetches. A single {@link HttpClient} keeps
+ * connections alive and pooled per host (negotiating HTTP/2 where the server
+ * offers it), so the TLS handshake is paid once per connection rather than once
+ * per account. Response bodies are always read to the end so the connection
+ * goes back to the pool. The client is built on the first request: building
+ * one sets up TLS and a selector thread, which offline runs and counties a run
+ * never reaches should not pay for at startup.
+ */
+final class HttpFetcher {
+    private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36";
+
+    private final Duration connectTimeout;
+    private final Duration requestTimeout;
+    private final PipelineMetrics metrics;
+    private volatile HttpClient client;
+
+    HttpFetcher(Duration connectTimeout, Duration requestTimeout, PipelineMetrics metrics) {
+        this.connectTimeout = connectTimeout;
+        this.requestTimeout = requestTimeout;
+        this.metrics = metrics;
+    }
+
+    FetchResponse fetch(String url) throws IOException, InterruptedException {
+        return fetch(url, null, null);
+    }
+
+    /**
+     * Conditional GET: sends {@code If-None-Match} / {@code If-Modified-Since}
+     * for whichever validators are non-null. A 304 comes back as a response
+     * with {@link FetchResponse#isNotModified()} and an empty body.
+     */
+    FetchResponse fetch(String url, String etag, String lastModified) throws IOException, InterruptedException {
+        long[] headersAt = new long[1];
+        HttpResponse<byte[]> response = client().send(buildRequest(url, etag, lastModified),
+                timedBodyHandler(headersAt));
+        metrics.record(PipelineMetrics.Stage.DOWNLOAD, System.nanoTime() - headersAt[0]);
+        return toFetchResponse(url, response);
+    }
+
+    CompletableFuture<FetchResponse> fetchAsync(String url) {
+        return fetchAsync(url, null, null);
+    }
+
+    /**
+     * {@link #fetch(String, String, String)} without holding a thread while
+     * the request is on the wire. Decoding and status handling are the same;
+     * their {@link IOException}s, such as {@link HttpStatusException}, complete
+     * the future exceptionally as its cause.
+     */
+    CompletableFuture<FetchResponse> fetchAsync(String url, String etag, String lastModified) {
+        long[] headersAt = new long[1];
+        return client().sendAsync(buildRequest(url, etag, lastModified), timedBodyHandler(headersAt))
+                .thenApply(response -> {
+                    metrics.record(PipelineMetrics.Stage.DOWNLOAD, System.nanoTime() - headersAt[0]);
+                    try {
+                        return toFetchResponse(url, response);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                });
+    }
+
+    /** Builds the client now, e.g. on a background thread ahead of the first request. */
+    void prepare() {
+        client();
+    }
+
+    private HttpClient client() {
+        HttpClient built = client;
+        if (built == null) {
+            synchronized (this) {
+                built = client;
+                if (built == null) {
+                    built = HttpClient.newBuilder()
+                            .version(HttpClient.Version.HTTP_2)
+                            .followRedirects(HttpClient.Redirect.NORMAL)
+                            .connectTimeout(connectTimeout)
+                            .build();
+                    client = built;
+                }
+            }
+        }
+        return built;
+    }
+
+    // Records time to response headers and notes when they arrived, so the caller can time the body
+    private HttpResponse.BodyHandler<byte[]> timedBodyHandler(long[] headersAt) {
+        long sentAt = System.nanoTime();
+        return responseInfo -> {
+            headersAt[0] = System.nanoTime();
+            metrics.record(PipelineMetrics.Stage.TTFB, headersAt[0] - sentAt);
+            return HttpResponse.BodySubscribers.ofByteArray();
+        };
+    }
+
+    private HttpRequest buildRequest(String url, String etag, String lastModified) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(requestTimeout)
+                .header("User-Agent", USER_AGENT)
+                .header("Accept", "text/html,application/xhtml+xml")
+                .header("Accept-Encoding", "gzip, deflate");
+        if (etag != null) {
+            request.header("If-None-Match", etag);
+        }
+        if (lastModified != null) {
+            request.header("If-Modified-Since", lastModified);
+        }
+        return request.GET().build();
+    }
+
+    private static FetchResponse toFetchResponse(String url, HttpResponse<byte[]> response) throws IOException {
+        int status = response.statusCode();
+        if (status >= 400) {
+            throw new HttpStatusException(url, status,
+                    HttpStatusException.parseRetryAfter(response.headers().firstValue("Retry-After").orElse(null)));
+        }
+        String etag = response.headers().firstValue("ETag").orElse(null);
+        String lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+        if (status == 304) {
+            return new FetchResponse(status, new byte[0], etag, lastModified);
+        }
+        String encoding = response.headers().firstValue("Content-Encoding").orElse("");
+        return new FetchResponse(status, decode(response.body(), encoding), etag, lastModified);
+    }
+
+    private static byte[] decode(byte[] body, String contentEncoding) throws IOException {
+        String encoding = contentEncoding.trim().toLowerCase(Locale.ROOT);
+        if (encoding.isEmpty() || "identity".equals(encoding) || body.length == 0) {
+            return body;
+        }
+        InputStream in;
+        if ("gzip".equals(encoding) || "x-gzip".equals(encoding)) {
+            in = new GZIPInputStream(new ByteArrayInputStream(body));
+        } else if ("deflate".equals(encoding)) {
+            in = new InflaterInputStream(new ByteArrayInputStream(body));
+        } else {
+            throw new UnreadableResponseException("Unsupported Content-Encoding: " + contentEncoding);
+        }
+        try (in) {
+            return in.readAllBytes();
+        }
+    }
+
+    static final class FetchResponse {
+        private final int statusCode;
+        private final byte[] body;
+        private final String etag;
+        private final String lastModified;
+
+        FetchResponse(int statusCode, byte[] body, String etag, String lastModified) {
+            this.statusCode = statusCode;
+            this.body = body;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        int getStatusCode() {
+            return statusCode;
+        }
+
+        byte[] getBody() {
+            return body;
+        }
+
+        boolean isNotModified() {
+            return statusCode == 304;
+        }
+
+        /** The response's ETag header, or null. */
+        String getETag() {
+            return etag;
+        }
+
+        /** The response's Last-Modified header, or null. */
+        String getLastModified() {
+            return lastModified;
+        }
+    }
+}
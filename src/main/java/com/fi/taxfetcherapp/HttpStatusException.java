@@ -0,0 +1,56 @@
+package com.fi.taxfetcherapp;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * An HTTP error response, carrying the status code and any {@code Retry-After}
+ * delay the server asked for so the retry layer can classify it.
+ */
+final class HttpStatusException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+    private final Duration retryAfter;
+
+    HttpStatusException(String url, int statusCode, Duration retryAfter) {
+        super("Server returned HTTP response code: " + statusCode + " for URL: " + url);
+        this.statusCode = statusCode;
+        this.retryAfter = retryAfter;
+    }
+
+    int getStatusCode() {
+        return statusCode;
+    }
+
+    /** The server's requested delay, or null when it sent none. */
+    Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * Parses a {@code Retry-After} value given either as delta-seconds or as an
+     * HTTP-date. Returns null for a missing or unparseable value.
+     */
+    static Duration parseRetryAfter(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(trimmed)));
+        } catch (NumberFormatException e) {
+            // fall through to the date form
+        }
+        try {
+            ZonedDateTime at = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME);
+            Duration delay = Duration.between(ZonedDateTime.now(at.getZone()), at);
+            return delay.isNegative() ? Duration.ZERO : delay;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.fi.taxfetcherapp;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+/**
+ * Builds large input workbooks for load tests against a {@link ReplayServer}.
+ * The template's header row is copied as-is and its data rows are repeated
+ * until the requested row count is reached, with each TAXID replaced by a
+ * unique synthetic account number so no two rows hit the same page. An
+ * optional duplicate percentage makes that share of rows repeat an earlier
+ * account instead, half of them in the {@code ACCT}-prefixed form, the way
+ * merged lead lists do.
+ */
+public final class LoadTestInputGenerator {
+    private static final long FIRST_SYNTHETIC_ACCOUNT = 900_000_000_000L;
+
+    private LoadTestInputGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3 && args.length != 4) {
+            System.err.println("Usage: java -cp TaxFetcherApp.jar com.fi.taxfetcherapp.LoadTestInputGenerator"
+                    + " <template.xlsx> <rows> <output.xlsx> [duplicate-percent]");
+            System.exit(2);
+            return;
+        }
+        Path output = Paths.get(args[2]);
+        int rows = Integer.parseInt(args[1]);
+        int duplicatePercent = args.length == 4 ? Integer.parseInt(args[3]) : 0;
+        generate(Paths.get(args[0]), rows, output, duplicatePercent);
+        System.out.println("Wrote " + rows + " rows to " + output);
+    }
+
+    static void generate(Path template, int rows, Path output) throws IOException {
+        generate(template, rows, output, 0);
+    }
+
+    static void generate(Path template, int rows, Path output, int duplicatePercent) throws IOException {
+        List<String> headers = new ArrayList<>();
+        List<List<String>> templateRows = new ArrayList<>();
+        DataFormatter formatter = new DataFormatter();
+        try (InputStream in = new FileInputStream(template.toFile());
+             Workbook workbook = new XSSFWorkbook(in)) {
+            Sheet sheet = workbook.getSheetAt(0);
+            for (Row row : sheet) {
+                List<String> values = new ArrayList<>();
+                for (int column = 0; column < row.getLastCellNum(); column++) {
+                    Cell cell = row.getCell(column);
+                    values.add(cell == null ? "" : formatter.formatCellValue(cell));
+                }
+                if (headers.isEmpty()) {
+                    headers.addAll(values);
+                } else {
+                    templateRows.add(values);
+                }
+            }
+        }
+        int taxIdColumn = headers.indexOf("TAXID");
+        if (taxIdColumn < 0 || templateRows.isEmpty()) {
+            throw new IOException("Template needs a TAXID header and at least one data row: " + template);
+        }
+
+        SXSSFWorkbook workbook = new SXSSFWorkbook(100);
+        try (OutputStream out = Files.newOutputStream(output)) {
+            Sheet sheet = workbook.createSheet("Sheet1");
+            writeRow(sheet.createRow(0), headers);
+            // Fixed seed so a given command line always produces the same workbook
+            Random random = new Random(rows);
+            long nextAccount = FIRST_SYNTHETIC_ACCOUNT;
+            for (int i = 0; i < rows; i++) {
+                List<String> values = new ArrayList<>(templateRows.get(i % templateRows.size()));
+                while (values.size() <= taxIdColumn) {
+                    values.add("");
+                }
+                String taxId;
+                if (i > 0 && random.nextInt(100) < duplicatePercent) {
+                    int distinct = (int) (nextAccount - FIRST_SYNTHETIC_ACCOUNT);
+                    long earlier = FIRST_SYNTHETIC_ACCOUNT + random.nextInt(distinct);
+                    taxId = (random.nextBoolean() ? "ACCT" : "") + earlier;
+                } else {
+                    taxId = Long.toString(nextAccount++);
+                }
+                values.set(taxIdColumn, taxId);
+                writeRow(sheet.createRow(i + 1), values);
+            }
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private static void writeRow(Row row, List<String> values) {
+        for (int column = 0; column < values.size(); column++) {
+            row.createCell(column).setCellValue(values.get(column));
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.fi.taxfetcherapp;
+
+import java.util.Arrays;
+
+/**
+ * Computes the derived loan and payoff columns of the output (LTV, RATE, APR,
+ * the monthly payments, the purchase estimate and so on) from each row's
+ * fetched tax due and total value, so analysts no longer need spreadsheet
+ * formulas for them.
+ *
+ * <p>Each record is computed as the writer receives it: the two inputs are
+ * parsed without allocating and the derived values land in an array reused
+ * for every record, so output still streams row by row. A value that cannot
+ * be computed, e.g. for a row without a tax amount, is NaN; the writer leaves
+ * such cells to whatever the input row carried. One calculator serves one
+ * writer thread.
+ *
+ * <p>The loan is the tax due plus the closing fees, amortized monthly at the
+ * annual rate over the full term, and alternatively over
+ * {@value #SHORT_TERM_MONTHS} months. APR is the rate at which those payments
+ * repay only the tax due, i.e. the rate with the fees folded in. The purchase
+ * estimate is a fixed share of the total value; the customer receives that
+ * less the loan payoff.
+ */
+final class LoanCalculator {
+    static final int SHORT_TERM_MONTHS = 24;
+
+    /** Output columns this calculator fills, in {@link #value} slot order. */
+    static final int[] COLUMNS = {
+            RecordSchema.FEES2, RecordSchema.TOTAL_WITH_FEES, RecordSchema.LTV, RecordSchema.RATE, RecordSchema.APR,
+            RecordSchema.PMT, RecordSchema.PMT_24_MONTHS, RecordSchema.FULL_TERM_OBLIGATION,
+            RecordSchema.MAX_PURCHASE_PRICE, RecordSchema.CASH_TO_CUSTOMER
+    };
+    /** Slots of {@link #COLUMNS} that hold ratios rather than dollar amounts. */
+    static final boolean[] RATIO = {false, false, true, true, true, false, false, false, false, false};
+    // Slot for each output column, or -1
+    private static final int[] SLOTS = slots();
+
+    private static final int FEES = 0;
+    private static final int TOTAL_WITH_FEES = 1;
+    private static final int LTV = 2;
+    private static final int RATE = 3;
+    private static final int APR = 4;
+    private static final int PMT = 5;
+    private static final int PMT_SHORT = 6;
+    private static final int OBLIGATION = 7;
+    private static final int PURCHASE = 8;
+    private static final int CASH = 9;
+
+    private static final int APR_ITERATIONS = 30;
+    private static final double APR_TOLERANCE = 1e-12;
+
+    private final double annualRate;
+    private final int termMonths;
+    private final double fees;
+    private final double purchaseRatio;
+    private final double[] values = new double[COLUMNS.length];
+
+    LoanCalculator(double annualRate, int termMonths, double fees, double purchaseRatio) {
+        this.annualRate = annualRate;
+        this.termMonths = termMonths;
+        this.fees = fees;
+        this.purchaseRatio = purchaseRatio;
+    }
+
+    static LoanCalculator forOptions(RunOptions options) {
+        return new LoanCalculator(options.getLoanRate(), options.getLoanTermMonths(), options.getLoanFees(),
+                options.getPurchaseRatio());
+    }
+
+    /** Computes the derived values of {@code record}, replacing those of the previous record. */
+    void compute(TaxRecord record) {
+        double taxDue = parseAmount(record.get(RecordSchema.CURRENT_TAX_DUE));
+        double totalValue = parseAmount(record.get(RecordSchema.CURRENT_TOTAL_VALUE));
+
+        // No loan without taxes owed; NaN propagates for rows without an amount
+        boolean owed = taxDue > 0;
+        double financed = owed ? taxDue + fees : taxDue == 0 ? 0 : Double.NaN;
+        double loan = owed ? financed : Double.NaN;
+        double monthlyRate = annualRate / 12;
+        double payment = loan / annuityFactor(monthlyRate, termMonths);
+        values[TOTAL_WITH_FEES] = financed;
+        values[FEES] = owed ? fees : Double.NaN;
+        values[RATE] = owed ? annualRate : Double.NaN;
+        values[PMT] = payment;
+        values[PMT_SHORT] = loan / annuityFactor(monthlyRate, SHORT_TERM_MONTHS);
+        values[OBLIGATION] = payment * termMonths;
+        values[APR] = !owed ? Double.NaN
+                : fees == 0 ? annualRate : 12 * monthlyRateFor(taxDue, payment, monthlyRate);
+
+        boolean valued = totalValue > 0;
+        values[LTV] = valued ? financed / totalValue : Double.NaN;
+        values[PURCHASE] = valued ? totalValue * purchaseRatio : Double.NaN;
+        values[CASH] = values[PURCHASE] - financed;
+    }
+
+    /** Value of {@link #COLUMNS}{@code [slot]} for the last computed record, or NaN. */
+    double value(int slot) {
+        return values[slot];
+    }
+
+    /** Slot of output column {@code column} in {@link #COLUMNS}, or -1 if it is not derived. */
+    static int slotOf(int column) {
+        return column < SLOTS.length ? SLOTS[column] : -1;
+    }
+
+    /**
+     * Dollar amount in fetched text such as {@code $10,499.42}, or NaN when
+     * the text holds anything but a currency sign, digits, separators and one
+     * decimal point (e.g. {@link ExtractionPlan#UNABLE_TO_EXTRACT}).
+     */
+    static double parseAmount(String text) {
+        long whole = 0;
+        long fraction = 0;
+        long scale = 1;
+        boolean digits = false;
+        boolean decimal = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits = true;
+                if (decimal) {
+                    if (scale < 1_000_000) {
+                        fraction = fraction * 10 + (c - '0');
+                        scale *= 10;
+                    }
+                } else if (whole < Long.MAX_VALUE / 100) {
+                    whole = whole * 10 + (c - '0');
+                } else {
+                    return Double.NaN;
+                }
+            } else if (c == '.' && !decimal) {
+                decimal = true;
+            } else if (c != '$' && c != ',' && c != ' ') {
+                return Double.NaN;
+            }
+        }
+        return digits ? whole + (double) fraction / scale : Double.NaN;
+    }
+
+    private static int[] slots() {
+        int[] slots = new int[RecordSchema.OUTPUT_COLUMN_COUNT];
+        Arrays.fill(slots, -1);
+        for (int slot = 0; slot < COLUMNS.length; slot++) {
+            slots[COLUMNS[slot]] = slot;
+        }
+        return slots;
+    }
+
+    // Present value of 1 per month for n months
+    private static double annuityFactor(double monthlyRate, int months) {
+        return monthlyRate == 0 ? months : (1 - Math.pow(1 + monthlyRate, -months)) / monthlyRate;
+    }
+
+    // Monthly rate at which payment repays principal over the term, by Newton's method from the note rate
+    private double monthlyRateFor(double principal, double payment, double start) {
+        double target = principal / payment;
+        double rate = Math.max(start, 1e-6);
+        for (int iteration = 0; iteration < APR_ITERATIONS; iteration++) {
+            double growth = Math.pow(1 + rate, -termMonths);
+            double factor = (1 - growth) / rate;
+            double slope = termMonths * growth / (rate * (1 + rate)) - factor / rate;
+            double step = (factor - target) / slope;
+            rate -= step;
+            if (rate <= 0) {
+                return Double.NaN;
+            }
+            if (Math.abs(step) < APR_TOLERANCE) {
+                return rate;
+            }
+        }
+        return rate;
+    }
+}
@@ -0,0 +1,204 @@
+package com.fi.taxfetcherapp;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Log destination for the UI that keeps logging off the event dispatch
+ * thread. {@link #log(String)} only stamps the message and puts it on a
+ * lock-free queue; a background thread drains the queue in batches, appends
+ * the full log to a rolling file and keeps the most recent lines in a ring
+ * buffer. The UI polls {@link #linesSince(long, List)} on a timer and appends a
+ * whole batch at once, so a busy run costs the EDT a few updates a second
+ * instead of one per message.
+ */
+final class LogSink implements AutoCloseable {
+    static final int DEFAULT_VISIBLE_LINES = 2_000;
+
+    private static final long DRAIN_INTERVAL_MILLIS = 100;
+    private static final int MAX_QUEUED = 100_000;
+    private static final long MAX_FILE_BYTES = 10L * 1024 * 1024;
+    private static final int MAX_ROLLED_FILES = 5;
+    private static final DateTimeFormatter VISIBLE_TIME =
+            DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+    private static final DateTimeFormatter FILE_TIME =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private final ConcurrentLinkedQueue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Path logFile;
+    private final String[] ring;
+    private final ScheduledExecutorService drainer;
+    // Guarded by this; written by the drainer, read by the UI timer
+    private long linesWritten;
+    // Touched only by the drainer thread (or close() after it has stopped)
+    private OutputStream fileOut;
+    private long fileBytes;
+    private boolean fileFailed;
+
+    /**
+     * Logs to {@code <directory>/taxfetcher.log}, rolled at 10 MB with five
+     * older files kept, and keeps the last {@code visibleLines} lines for the
+     * UI.
+     */
+    LogSink(Path directory, int visibleLines) {
+        this.logFile = directory.resolve("taxfetcher.log");
+        this.ring = new String[visibleLines];
+        drainer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "log-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        drainer.scheduleWithFixedDelay(this::drain, DRAIN_INTERVAL_MILLIS, DRAIN_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    Path getLogFile() {
+        return logFile;
+    }
+
+    /** Safe to call from any thread; never blocks. */
+    void log(String message) {
+        if (queued.incrementAndGet() > MAX_QUEUED) {
+            // The drainer has fallen far behind; count rather than grow the heap
+            queued.decrementAndGet();
+            dropped.incrementAndGet();
+            return;
+        }
+        queue.offer(new Entry(System.currentTimeMillis(), message));
+    }
+
+    /**
+     * Adds the lines logged after sequence number {@code seen} to
+     * {@code into}, oldest first, and returns the sequence number to pass
+     * next time. When more lines than the ring holds have arrived since,
+     * only the ring's contents are added.
+     */
+    synchronized long linesSince(long seen, List<String> into) {
+        for (long line = Math.max(seen, linesWritten - ring.length); line < linesWritten; line++) {
+            into.add(ring[(int) (line % ring.length)]);
+        }
+        return linesWritten;
+    }
+
+    @Override
+    public void close() {
+        drainer.shutdown();
+        try {
+            drainer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drain();
+        if (fileOut != null) {
+            try {
+                fileOut.close();
+            } catch (IOException e) {
+                // Already reported by the drainer if the file was failing
+            }
+            fileOut = null;
+        }
+    }
+
+    private synchronized void addVisible(List<String> lines) {
+        for (String line : lines) {
+            ring[(int) (linesWritten % ring.length)] = line;
+            linesWritten++;
+        }
+    }
+
+    private void drain() {
+        List<String> visible = new ArrayList<>();
+        StringBuilder fileText = new StringBuilder(4096);
+        long droppedNow = dropped.getAndSet(0);
+        if (droppedNow > 0) {
+            Entry notice = new Entry(System.currentTimeMillis(), droppedNow + " log messages dropped");
+            visible.add(notice.format(VISIBLE_TIME));
+            fileText.append(notice.format(FILE_TIME)).append('\n');
+        }
+        Entry entry;
+        while ((entry = queue.poll()) != null) {
+            queued.decrementAndGet();
+            visible.add(entry.format(VISIBLE_TIME));
+            fileText.append(entry.format(FILE_TIME)).append('\n');
+        }
+        if (visible.isEmpty()) {
+            return;
+        }
+        addVisible(visible);
+        writeToFile(fileText.toString());
+    }
+
+    private void writeToFile(String text) {
+        if (fileFailed) {
+            return;
+        }
+        try {
+            if (fileOut == null) {
+                Files.createDirectories(logFile.getParent());
+                fileBytes = Files.exists(logFile) ? Files.size(logFile) : 0;
+                fileOut = new BufferedOutputStream(Files.newOutputStream(logFile,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+            }
+            // Rolled by encoded size: non-ASCII owner names take more than one byte per char
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            fileOut.write(bytes);
+            fileOut.flush();
+            fileBytes += bytes.length;
+            if (fileBytes >= MAX_FILE_BYTES) {
+                roll();
+            }
+        } catch (IOException e) {
+            fileFailed = true;
+            addVisible(List.of("Log file " + logFile + " disabled: " + e.getMessage()));
+        }
+    }
+
+    // taxfetcher.log -> taxfetcher.1.log -> ... -> taxfetcher.5.log, dropping the oldest
+    private void roll() throws IOException {
+        fileOut.close();
+        fileOut = null;
+        Path directory = logFile.getParent();
+        Files.deleteIfExists(directory.resolve("taxfetcher." + MAX_ROLLED_FILES + ".log"));
+        for (int index = MAX_ROLLED_FILES - 1; index >= 1; index--) {
+            Path older = directory.resolve("taxfetcher." + index + ".log");
+            if (Files.exists(older)) {
+                Files.move(older, directory.resolve("taxfetcher." + (index + 1) + ".log"),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(logFile, directory.resolve("taxfetcher.1.log"), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static final class Entry {
+        final long timeMillis;
+        final String message;
+
+        Entry(long timeMillis, String message) {
+            this.timeMillis = timeMillis;
+            this.message = message;
+        }
+
+        String format(DateTimeFormatter time) {
+            return "[" + time.format(Instant.ofEpochMilli(timeMillis)) + "] " + message;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.fi.taxfetcherapp;
+
+/**
+ * Jar entry point. With command-line arguments it runs the headless batch
+ * client; without any it starts the Swing UI. The UI class is only referenced
+ * on that branch, so batch runs never load AWT.
+ */
+public final class Main {
+    private Main() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length > 0) {
+            TaxFetcherCli.main(args);
+        } else {
+            TaxFetcherApp.main(args);
+        }
+    }
+}
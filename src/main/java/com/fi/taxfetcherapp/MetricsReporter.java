@@ -0,0 +1,81 @@
+package com.fi.taxfetcherapp;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Periodically writes a {@link PipelineMetrics} snapshot as
+ * {@code metrics.json} and {@code metrics.prom} (Prometheus text format, for
+ * the node-exporter textfile collector) in a directory. Each file is replaced
+ * atomically so readers never see a partial snapshot. A final snapshot is
+ * written on {@link #close()}.
+ */
+final class MetricsReporter implements AutoCloseable {
+    private final PipelineMetrics metrics;
+    private final Path directory;
+    private final Consumer<String> log;
+    private final ScheduledExecutorService scheduler;
+    private boolean failureLogged;
+
+    /** An interval of zero writes only the final snapshot. */
+    MetricsReporter(PipelineMetrics metrics, Path directory, Duration interval, Consumer<String> log)
+            throws IOException {
+        this.metrics = metrics;
+        this.directory = directory;
+        this.log = log;
+        Files.createDirectories(directory);
+        if (interval.isZero() || interval.isNegative()) {
+            scheduler = null;
+        } else {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "metrics-reporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleAtFixedRate(this::writeSnapshot, interval.toMillis(), interval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    Path getDirectory() {
+        return directory;
+    }
+
+    synchronized void writeSnapshot() {
+        try {
+            replace(directory.resolve("metrics.json"), metrics.toJson());
+            replace(directory.resolve("metrics.prom"), metrics.toPrometheus());
+        } catch (IOException e) {
+            if (!failureLogged) {
+                failureLogged = true;
+                log.accept("Failed to write metrics snapshot to " + directory + ": " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        writeSnapshot();
+    }
+
+    private void replace(Path target, String content) throws IOException {
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, content.getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
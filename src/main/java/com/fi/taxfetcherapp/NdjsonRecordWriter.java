@@ -0,0 +1,78 @@
+package com.fi.taxfetcherapp;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Writes records as gzip-compressed newline-delimited JSON: one object per
+ * line, keyed by output column name in schema order. Values are strings as
+ * fetched, except the derived loan columns, which are JSON numbers when they
+ * could be computed. There is no header line.
+ */
+final class NdjsonRecordWriter extends TextRecordWriter {
+    // Column names already quoted and escaped as object keys
+    private static final String[] KEYS = keys();
+
+    NdjsonRecordWriter(Path outputFile, LoanCalculator calculator) throws IOException {
+        super(outputFile, true, calculator);
+    }
+
+    @Override
+    void appendRecord(StringBuilder line, TaxRecord record) {
+        line.append('{');
+        for (int i = 0; i < HEADERS.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            line.append(KEYS[i]);
+            double derived = derived(i);
+            if (Double.isNaN(derived)) {
+                appendString(line, record.get(i));
+            } else {
+                appendDecimal(line, i, derived);
+            }
+        }
+        line.append("}\n");
+    }
+
+    private static String[] keys() {
+        String[] keys = new String[HEADERS.length];
+        for (int i = 0; i < keys.length; i++) {
+            StringBuilder key = new StringBuilder();
+            appendString(key, HEADERS[i]);
+            keys[i] = key.append(':').toString();
+        }
+        return keys;
+    }
+
+    private static void appendString(StringBuilder line, String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    line.append("\\\"");
+                    break;
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+            }
+        }
+        line.append('"');
+    }
+}
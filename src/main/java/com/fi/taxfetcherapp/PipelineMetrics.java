@@ -0,0 +1,361 @@
+package com.fi.taxfetcherapp;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.ConnectException;
+import java.net.SocketException;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counters, gauges and per-stage latency histograms for the fetch pipeline,
+ * shared by every run of one {@link TaxFetchEngine}. Counters are cumulative
+ * for the engine's lifetime, as Prometheus expects; throughput is measured
+ * from the start of the current run. Exposed over JMX and rendered as JSON
+ * or Prometheus text by {@link MetricsReporter}.
+ */
+final class PipelineMetrics implements PipelineMetricsMXBean {
+    static final String OBJECT_NAME = "com.fi.taxfetcherapp:type=PipelineMetrics";
+    private static final double[] PERCENTILES = {50, 90, 99};
+
+    /** Timed pipeline stages. TTFB runs from sending the request to its response headers. */
+    enum Stage {
+        TTFB, DOWNLOAD, PARSE, EXTRACT, WRITE;
+
+        final String label = name().toLowerCase(Locale.ROOT);
+    }
+
+    private final LatencyHistogram[] latencies = new LatencyHistogram[Stage.values().length];
+    private final AtomicLong recordsProcessed = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder coalescedFetches = new LongAdder();
+    private final Map<String, LongAdder> retries = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private volatile IntSupplier queueDepth = () -> 0;
+    private volatile IntSupplier parseQueueDepth = () -> 0;
+    private volatile IntSupplier concurrencyLimit = () -> 0;
+    private volatile long runStartNanos = System.nanoTime();
+    private volatile long runStartRecords;
+    private ObjectName registeredName;
+    private boolean unregistered;
+
+    PipelineMetrics() {
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+    }
+
+    void startRun(IntSupplier queueDepth, IntSupplier parseQueueDepth, IntSupplier concurrencyLimit) {
+        this.queueDepth = queueDepth;
+        this.parseQueueDepth = parseQueueDepth;
+        this.concurrencyLimit = concurrencyLimit;
+        runStartRecords = recordsProcessed.get();
+        runStartNanos = System.nanoTime();
+    }
+
+    void record(Stage stage, long nanos) {
+        latencies[stage.ordinal()].record(nanos);
+    }
+
+    LatencyHistogram getLatency(Stage stage) {
+        return latencies[stage.ordinal()];
+    }
+
+    void recordProcessed() {
+        recordsProcessed.incrementAndGet();
+    }
+
+    void fetchStarted() {
+        inFlight.incrementAndGet();
+    }
+
+    void fetchFinished() {
+        inFlight.decrementAndGet();
+    }
+
+    void cacheHit() {
+        cacheHits.increment();
+    }
+
+    void cacheMiss() {
+        cacheMisses.increment();
+    }
+
+    /** A fetch that was not made because another row or request for the same page supplied the result. */
+    void fetchCoalesced() {
+        coalescedFetches.increment();
+    }
+
+    void retry(Throwable cause) {
+        retries.computeIfAbsent(causeOf(cause), key -> new LongAdder()).increment();
+    }
+
+    void error(Throwable cause) {
+        errors.computeIfAbsent(causeOf(cause), key -> new LongAdder()).increment();
+    }
+
+    /** Short, low-cardinality label for a failure, used as a metric dimension. */
+    static String causeOf(Throwable cause) {
+        if (cause instanceof HttpStatusException) {
+            return "http_" + ((HttpStatusException) cause).getStatusCode();
+        }
+        if (cause instanceof HttpConnectTimeoutException) {
+            return "connect_timeout";
+        }
+        if (cause instanceof HttpTimeoutException) {
+            return "timeout";
+        }
+        if (cause instanceof ConnectException) {
+            return "connection_refused";
+        }
+        if (cause instanceof SocketException || cause instanceof EOFException) {
+            return "connection_reset";
+        }
+        if (cause instanceof IOException) {
+            return "io";
+        }
+        return "other";
+    }
+
+    @Override
+    public long getRecordsProcessed() {
+        return recordsProcessed.get();
+    }
+
+    @Override
+    public double getRecordsPerSecond() {
+        double seconds = (System.nanoTime() - runStartNanos) / 1e9;
+        return seconds <= 0 ? 0 : (recordsProcessed.get() - runStartRecords) / seconds;
+    }
+
+    @Override
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queueDepth.getAsInt();
+    }
+
+    @Override
+    public int getParseQueueDepth() {
+        return parseQueueDepth.getAsInt();
+    }
+
+    @Override
+    public int getConcurrencyLimit() {
+        return concurrencyLimit.getAsInt();
+    }
+
+    @Override
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    @Override
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    @Override
+    public double getCacheHitRatio() {
+        long hits = cacheHits.sum();
+        long lookups = hits + cacheMisses.sum();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public long getCoalescedFetches() {
+        return coalescedFetches.sum();
+    }
+
+    @Override
+    public Map<String, Long> getRetriesByCause() {
+        return sums(retries);
+    }
+
+    @Override
+    public Map<String, Long> getErrorsByCause() {
+        return sums(errors);
+    }
+
+    @Override
+    public Map<String, Double> getLatencyMillis() {
+        Map<String, Double> values = new LinkedHashMap<>();
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram histogram = getLatency(stage);
+            values.put(stage.label + ".count", (double) histogram.getCount());
+            values.put(stage.label + ".mean", histogram.getMeanMillis());
+            for (double percentile : PERCENTILES) {
+                values.put(stage.label + ".p" + (int) percentile, histogram.getPercentileMillis(percentile));
+            }
+            values.put(stage.label + ".max", histogram.getMaxMillis());
+        }
+        return values;
+    }
+
+    /** Registers this instance with the platform MBean server, replacing any earlier engine's. */
+    synchronized void registerMBean() {
+        if (unregistered) {
+            // The engine closed before its background registration got to run
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+            registeredName = name;
+        } catch (JMException e) {
+            // Metrics still reach the snapshot files without JMX
+        }
+    }
+
+    synchronized void unregisterMBean() {
+        unregistered = true;
+        if (registeredName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+        } catch (JMException e) {
+            // Already replaced by another engine
+        }
+        registeredName = null;
+    }
+
+    String toJson() {
+        StringBuilder json = new StringBuilder(1024);
+        json.append("{\n");
+        json.append("  \"timestamp\": \"").append(Instant.now()).append("\",\n");
+        json.append("  \"recordsProcessed\": ").append(getRecordsProcessed()).append(",\n");
+        json.append("  \"recordsPerSecond\": ").append(format(getRecordsPerSecond())).append(",\n");
+        json.append("  \"inFlight\": ").append(getInFlight()).append(",\n");
+        json.append("  \"queueDepth\": ").append(getQueueDepth()).append(",\n");
+        json.append("  \"parseQueueDepth\": ").append(getParseQueueDepth()).append(",\n");
+        json.append("  \"concurrencyLimit\": ").append(getConcurrencyLimit()).append(",\n");
+        json.append("  \"cache\": {\"hits\": ").append(getCacheHits())
+                .append(", \"misses\": ").append(getCacheMisses())
+                .append(", \"hitRatio\": ").append(format(getCacheHitRatio())).append("},\n");
+        json.append("  \"coalescedFetches\": ").append(getCoalescedFetches()).append(",\n");
+        json.append("  \"retries\": ");
+        appendJsonCounts(json, getRetriesByCause());
+        json.append(",\n  \"errors\": ");
+        appendJsonCounts(json, getErrorsByCause());
+        json.append(",\n  \"latencyMillis\": {");
+        Stage[] stages = Stage.values();
+        for (int s = 0; s < stages.length; s++) {
+            LatencyHistogram histogram = getLatency(stages[s]);
+            json.append(s == 0 ? "\n" : ",\n").append("    \"").append(stages[s].label).append("\": {")
+                    .append("\"count\": ").append(histogram.getCount())
+                    .append(", \"mean\": ").append(format(histogram.getMeanMillis()));
+            for (double percentile : PERCENTILES) {
+                json.append(", \"p").append((int) percentile).append("\": ")
+                        .append(format(histogram.getPercentileMillis(percentile)));
+            }
+            json.append(", \"max\": ").append(format(histogram.getMaxMillis())).append('}');
+        }
+        json.append("\n  }\n}\n");
+        return json.toString();
+    }
+
+    String toPrometheus() {
+        StringBuilder text = new StringBuilder(2048);
+        gauge(text, "taxfetcher_records_processed_total", "counter", "Records written to the output",
+                getRecordsProcessed());
+        gauge(text, "taxfetcher_records_per_second", "gauge", "Records per second in the current run",
+                getRecordsPerSecond());
+        gauge(text, "taxfetcher_in_flight", "gauge", "Detail-page fetches in flight", getInFlight());
+        gauge(text, "taxfetcher_queue_depth", "gauge", "Results waiting to be written in input order",
+                getQueueDepth());
+        gauge(text, "taxfetcher_parse_queue_depth", "gauge", "Fetched pages waiting for a parse thread",
+                getParseQueueDepth());
+        gauge(text, "taxfetcher_concurrency_limit", "gauge", "Adaptive limit on requests in flight",
+                getConcurrencyLimit());
+        gauge(text, "taxfetcher_cache_hits_total", "counter", "Response cache hits", getCacheHits());
+        gauge(text, "taxfetcher_cache_misses_total", "counter", "Response cache misses", getCacheMisses());
+        gauge(text, "taxfetcher_cache_hit_ratio", "gauge", "Response cache hit ratio", getCacheHitRatio());
+        gauge(text, "taxfetcher_coalesced_fetches_total", "counter", "Fetches saved by coalescing duplicate accounts",
+                getCoalescedFetches());
+        labelledCounts(text, "taxfetcher_retries_total", "Fetch retries by cause", getRetriesByCause());
+        labelledCounts(text, "taxfetcher_errors_total", "Failed records by cause", getErrorsByCause());
+
+        text.append("# HELP taxfetcher_stage_latency_seconds Pipeline stage latency\n");
+        text.append("# TYPE taxfetcher_stage_latency_seconds summary\n");
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram histogram = getLatency(stage);
+            for (double percentile : PERCENTILES) {
+                text.append("taxfetcher_stage_latency_seconds{stage=\"").append(stage.label)
+                        .append("\",quantile=\"").append(format(percentile / 100)).append("\"} ")
+                        .append(format(histogram.getPercentileMillis(percentile) / 1000)).append('\n');
+            }
+            text.append("taxfetcher_stage_latency_seconds_sum{stage=\"").append(stage.label).append("\"} ")
+                    .append(format(histogram.getMeanMillis() * histogram.getCount() / 1000)).append('\n');
+            text.append("taxfetcher_stage_latency_seconds_count{stage=\"").append(stage.label).append("\"} ")
+                    .append(histogram.getCount()).append('\n');
+        }
+        return text.toString();
+    }
+
+    private static Map<String, Long> sums(Map<String, LongAdder> counters) {
+        Map<String, Long> values = new TreeMap<>();
+        counters.forEach((cause, adder) -> values.put(cause, adder.sum()));
+        return values;
+    }
+
+    private static void appendJsonCounts(StringBuilder json, Map<String, Long> counts) {
+        json.append('{');
+        boolean first = true;
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            json.append(first ? "" : ", ").append('"').append(entry.getKey()).append("\": ").append(entry.getValue());
+            first = false;
+        }
+        json.append('}');
+    }
+
+    private static void gauge(StringBuilder text, String name, String type, String help, double value) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        text.append(name).append(' ').append(format(value)).append('\n');
+    }
+
+    private static void labelledCounts(StringBuilder text, String name, String help, Map<String, Long> counts) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(name).append(" counter\n");
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            text.append(name).append("{cause=\"").append(entry.getKey()).append("\"} ")
+                    .append(entry.getValue()).append('\n');
+        }
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        String text = String.format(Locale.ROOT, "%.6f", value);
+        int end = text.length();
+        while (text.charAt(end - 1) == '0') {
+            end--;
+        }
+        return text.substring(0, text.charAt(end - 1) == '.' ? end - 1 : end);
+    }
+}
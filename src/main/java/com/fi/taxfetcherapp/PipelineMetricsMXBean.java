@@ -0,0 +1,36 @@
+package com.fi.taxfetcherapp;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link PipelineMetrics}, registered as
+ * {@value PipelineMetrics#OBJECT_NAME}. Latencies are keyed
+ * {@code <stage>.<statistic>}, e.g. {@code parse.p99}, in milliseconds.
+ */
+public interface PipelineMetricsMXBean {
+    long getRecordsProcessed();
+
+    double getRecordsPerSecond();
+
+    int getInFlight();
+
+    int getQueueDepth();
+
+    int getParseQueueDepth();
+
+    int getConcurrencyLimit();
+
+    long getCacheHits();
+
+    long getCacheMisses();
+
+    double getCacheHitRatio();
+
+    long getCoalescedFetches();
+
+    Map<String, Long> getRetriesByCause();
+
+    Map<String, Long> getErrorsByCause();
+
+    Map<String, Double> getLatencyMillis();
+}
@@ -0,0 +1,18 @@
+package com.fi.taxfetcherapp;
+
+/**
+ * Receives log lines and progress updates from {@link TaxFetchEngine}. Called
+ * from the engine's threads; implementations hand off to their own UI thread
+ * or output as needed.
+ */
+interface ProgressListener {
+    void log(String message);
+
+    /**
+     * @param processed   records written so far
+     * @param rowsRead    input rows read so far
+     * @param allRowsRead true once {@code rowsRead} is the final input size
+     * @param concurrencyLimit current adaptive limit on requests in flight, summed over county hosts
+     */
+    void progress(int processed, int rowsRead, boolean allRowsRead, int concurrencyLimit);
+}
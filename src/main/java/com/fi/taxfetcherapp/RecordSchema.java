@@ -0,0 +1,124 @@
+package com.fi.taxfetcherapp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column layout shared by every {@link TaxRecord} of a run. The output columns
+ * always come first with fixed indices, so the writer and the extraction rules
+ * address them by integer constant; any input-only columns (such as TAXID)
+ * are appended after them when the input header row is read. Column names are
+ * interned once here rather than per row.
+ */
+final class RecordSchema {
+    private static final String[] OUTPUT_COLUMNS = {
+            "JDX", "ACCOUNT_NUMBER", "PropID", "LastRun", "OwnerName", "OwnerStreet",
+            "OwnerCity", "OwnerState", "OwnerZIP", "PropStreet", "PropCity",
+            "PropState", "PropZIP", "Description", "Exemptions", "Lawsuit", "BK",
+            "Tax", "Fees", "PriorDue", "LastPayment", "LastPaymentDate",
+            "LastPayer", "PendingPayment", "PendingPaymentDate", "ValueAss",
+            "ValueLand", "ValueImp", "CurrentDue", "TOTAL DUE", "LTV",
+            "law suit active", "FEES2", "TT W FEES 4 PMT", "RATE", "APR",
+            "pmt", "best payment option", "Back of card repayment obligation",
+            "Obligation IF you use entire term", "lesser obligation", "IF PAID BY",
+            "ESTIMATED MAX PURCHASE PRICE", "CASH TO CUSTOMER", "WIGGLE ROOM",
+            "FORECLOSURE", "tax loan amount", "lender name", "MAILER/DELTE",
+            "pmt 24 mts", "MobileHome", "UNIQUE",
+            "CURRENT_OWNER_NAME", "CURRENT_OWNER_STREET", "CURRENT_OWNER_CITY",
+            "CURRENT_OWNER_STATE", "CURRENT_OWNER_ZIP", "CURRENT_PROP_ADDRESS",
+            "CURRENT_PROP_STREET", "CURRENT_PROP_CITY", "CURRENT_PROP_STATE",
+            "CURRENT_PROP_ZIP", "CURRENT_TAX_DUE", "LAST_PAYMENT_INFO",
+            "CURRENT_TOTAL_VALUE", "CURRENT_LAND_VALUE", "CURRENT_IMPROVEMENT_VALUE",
+            "FETCH_STATUS", "FETCH_DATE"
+    };
+
+    /** Schema with only the output columns. */
+    static final RecordSchema OUTPUT = new RecordSchema(OUTPUT_COLUMNS);
+
+    static final int OUTPUT_COLUMN_COUNT = OUTPUT_COLUMNS.length;
+    static final int JDX = OUTPUT.indexOf("JDX");
+    static final int ACCOUNT_NUMBER = OUTPUT.indexOf("ACCOUNT_NUMBER");
+    static final int CURRENT_OWNER_NAME = OUTPUT.indexOf("CURRENT_OWNER_NAME");
+    static final int CURRENT_OWNER_STREET = OUTPUT.indexOf("CURRENT_OWNER_STREET");
+    static final int CURRENT_OWNER_CITY = OUTPUT.indexOf("CURRENT_OWNER_CITY");
+    static final int CURRENT_OWNER_STATE = OUTPUT.indexOf("CURRENT_OWNER_STATE");
+    static final int CURRENT_OWNER_ZIP = OUTPUT.indexOf("CURRENT_OWNER_ZIP");
+    static final int CURRENT_PROP_ADDRESS = OUTPUT.indexOf("CURRENT_PROP_ADDRESS");
+    static final int CURRENT_PROP_STREET = OUTPUT.indexOf("CURRENT_PROP_STREET");
+    static final int CURRENT_PROP_CITY = OUTPUT.indexOf("CURRENT_PROP_CITY");
+    static final int CURRENT_PROP_STATE = OUTPUT.indexOf("CURRENT_PROP_STATE");
+    static final int CURRENT_PROP_ZIP = OUTPUT.indexOf("CURRENT_PROP_ZIP");
+    static final int CURRENT_TAX_DUE = OUTPUT.indexOf("CURRENT_TAX_DUE");
+    static final int LAST_PAYMENT_INFO = OUTPUT.indexOf("LAST_PAYMENT_INFO");
+    static final int CURRENT_TOTAL_VALUE = OUTPUT.indexOf("CURRENT_TOTAL_VALUE");
+    static final int CURRENT_LAND_VALUE = OUTPUT.indexOf("CURRENT_LAND_VALUE");
+    static final int CURRENT_IMPROVEMENT_VALUE = OUTPUT.indexOf("CURRENT_IMPROVEMENT_VALUE");
+    static final int FETCH_STATUS = OUTPUT.indexOf("FETCH_STATUS");
+    static final int FETCH_DATE = OUTPUT.indexOf("FETCH_DATE");
+    static final int FEES2 = OUTPUT.indexOf("FEES2");
+    static final int TOTAL_WITH_FEES = OUTPUT.indexOf("TT W FEES 4 PMT");
+    static final int LTV = OUTPUT.indexOf("LTV");
+    static final int RATE = OUTPUT.indexOf("RATE");
+    static final int APR = OUTPUT.indexOf("APR");
+    static final int PMT = OUTPUT.indexOf("pmt");
+    static final int PMT_24_MONTHS = OUTPUT.indexOf("pmt 24 mts");
+    static final int FULL_TERM_OBLIGATION = OUTPUT.indexOf("Obligation IF you use entire term");
+    static final int MAX_PURCHASE_PRICE = OUTPUT.indexOf("ESTIMATED MAX PURCHASE PRICE");
+    static final int CASH_TO_CUSTOMER = OUTPUT.indexOf("CASH TO CUSTOMER");
+
+    /** Output columns a fetch fills in, as opposed to those carried over from the input row. */
+    static final int[] FETCHED_COLUMNS = {
+            ACCOUNT_NUMBER, CURRENT_OWNER_NAME, CURRENT_OWNER_STREET, CURRENT_OWNER_CITY, CURRENT_OWNER_STATE,
+            CURRENT_OWNER_ZIP, CURRENT_PROP_ADDRESS, CURRENT_PROP_STREET, CURRENT_PROP_CITY, CURRENT_PROP_STATE,
+            CURRENT_PROP_ZIP, CURRENT_TAX_DUE, LAST_PAYMENT_INFO, CURRENT_TOTAL_VALUE, CURRENT_LAND_VALUE,
+            CURRENT_IMPROVEMENT_VALUE, FETCH_STATUS, FETCH_DATE
+    };
+
+    private final String[] names;
+    private final Map<String, Integer> index;
+
+    private RecordSchema(String[] names) {
+        this.names = names;
+        this.index = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            names[i] = names[i].intern();
+            index.putIfAbsent(names[i], i);
+        }
+    }
+
+    /**
+     * Builds the schema for an input sheet: the output columns followed by any
+     * input header not already among them. Blank headers are skipped.
+     */
+    static RecordSchema forInputHeaders(List<String> inputHeaders) {
+        List<String> names = new ArrayList<>(Arrays.asList(OUTPUT_COLUMNS));
+        for (String header : inputHeaders) {
+            if (!header.isEmpty() && OUTPUT.indexOf(header) < 0 && !names.contains(header)) {
+                names.add(header);
+            }
+        }
+        return new RecordSchema(names.toArray(new String[0]));
+    }
+
+    /** Names of the output columns in output order. */
+    static String[] outputColumns() {
+        return OUTPUT_COLUMNS.clone();
+    }
+
+    int size() {
+        return names.length;
+    }
+
+    String nameAt(int column) {
+        return names[column];
+    }
+
+    /** Index of the named column, or -1. */
+    int indexOf(String name) {
+        Integer column = index.get(name);
+        return column != null ? column : -1;
+    }
+}
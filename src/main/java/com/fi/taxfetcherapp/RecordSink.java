@@ -0,0 +1,22 @@
+package com.fi.taxfetcherapp;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Output file of a run, written one record at a time in output order with
+ * the {@link RecordSchema} output columns. {@link #finish()} completes the
+ * file; closing a sink that was not finished discards whatever it wrote.
+ * Sinks are created by {@link RecordSinks} from the run's output format and
+ * are used by a single writer thread.
+ */
+interface RecordSink extends AutoCloseable {
+    Path getOutputFile();
+
+    void write(TaxRecord record) throws IOException;
+
+    void finish() throws IOException;
+
+    @Override
+    void close() throws IOException;
+}
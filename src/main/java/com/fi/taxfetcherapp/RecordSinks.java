@@ -0,0 +1,58 @@
+package com.fi.taxfetcherapp;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The output formats a run can write, by the name used for
+ * {@link RunOptions#setOutputFormat(String)} and the CLI's {@code --format}.
+ */
+final class RecordSinks {
+    private static final List<String> FORMATS = List.of(RunOptions.FORMAT_XLSX, RunOptions.FORMAT_CSV,
+            RunOptions.FORMAT_NDJSON);
+
+    private RecordSinks() {
+    }
+
+    static List<String> formats() {
+        return FORMATS;
+    }
+
+    static boolean isSupported(String format) {
+        return format != null && FORMATS.contains(format.toLowerCase(Locale.ROOT));
+    }
+
+    /** File name suffix for {@code format}, e.g. {@code .ndjson.gz}. */
+    static String extension(String format) {
+        switch (format.toLowerCase(Locale.ROOT)) {
+            case RunOptions.FORMAT_XLSX:
+                return ".xlsx";
+            case RunOptions.FORMAT_CSV:
+                return ".csv";
+            case RunOptions.FORMAT_NDJSON:
+                return ".ndjson.gz";
+            default:
+                throw new IllegalArgumentException("Unsupported output format: " + format);
+        }
+    }
+
+    /**
+     * Opens a sink writing {@code outputFile} in {@code format}. The row
+     * window only applies to workbooks; see {@link XlsxRecordWriter}.
+     */
+    static RecordSink open(String format, Path outputFile, int rowWindow, LoanCalculator calculator)
+            throws IOException {
+        switch (format.toLowerCase(Locale.ROOT)) {
+            case RunOptions.FORMAT_XLSX:
+                return new XlsxRecordWriter(outputFile, rowWindow, true, calculator);
+            case RunOptions.FORMAT_CSV:
+                return new CsvRecordWriter(outputFile, calculator);
+            case RunOptions.FORMAT_NDJSON:
+                return new NdjsonRecordWriter(outputFile, calculator);
+            default:
+                throw new IllegalArgumentException("Unsupported output format: " + format);
+        }
+    }
+}
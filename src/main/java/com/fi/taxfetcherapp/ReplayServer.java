@@ -0,0 +1,375 @@
+package com.fi.taxfetcherapp;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local stand-in for the ACT {@code showdetail2.jsp} sites, for load testing
+ * without touching the live hosts. Serves recorded detail pages from a fixture
+ * directory ({@code <dir>/<county>/<account>.html} or
+ * {@code <dir>/<account>.html}, as written by a run with
+ * {@code --record-fixtures}); accounts without a recording are answered with
+ * the recorded pages in rotation, so inputs of any size can be replayed from a
+ * small corpus. Latency, error injection and a requests-per-second throttle are
+ * configurable. Pages carry an ETag and {@code If-None-Match} is answered
+ * with 304, as incremental runs expect. Point a run at it with
+ * {@code --base-url}.
+ */
+public final class ReplayServer implements AutoCloseable {
+    static final int DEFAULT_PORT = 8089;
+
+    private final HttpServer server;
+    private final ExecutorService handlers;
+    private final ScheduledExecutorService delays;
+    private final Map<String, Page> pages = new HashMap<>();
+    private final List<Page> rotation = new ArrayList<>();
+    private final AtomicInteger nextInRotation = new AtomicInteger();
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final double errorRate;
+    private final int maxRequestsPerSecond;
+    private final boolean serveMisses;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private long throttleWindowStart;
+    private int throttleWindowCount;
+
+    /**
+     * @param maxRequestsPerSecond requests beyond this in any one second get a
+     *                             429 with Retry-After; 0 disables throttling
+     * @param serveMisses          answer unrecorded accounts from the rotation
+     *                             instead of with a 404
+     */
+    ReplayServer(Path fixtureDirectory, int port, long latencyMillis, long jitterMillis, double errorRate,
+                 int maxRequestsPerSecond, boolean serveMisses) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.errorRate = errorRate;
+        this.maxRequestsPerSecond = maxRequestsPerSecond;
+        this.serveMisses = serveMisses;
+        loadFixtures(fixtureDirectory);
+
+        // Headers and body go out as separate writes; without this Nagle and delayed ACKs add ~40 ms
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+        handlers = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()),
+                daemon("replay-handler"));
+        // Latency is applied by scheduling the response, not by sleeping on a handler thread
+        delays = Executors.newScheduledThreadPool(2, daemon("replay-delay"));
+        server.setExecutor(handlers);
+        server.createContext("/", this::handle);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path fixtures = null;
+        int port = DEFAULT_PORT;
+        long latency = 0;
+        long jitter = 0;
+        double errorRate = 0;
+        int maxRate = 0;
+        boolean serveMisses = true;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                switch (arg) {
+                    case "--fixtures":
+                        fixtures = Paths.get(value(args, ++i, arg));
+                        break;
+                    case "--port":
+                        port = Integer.parseInt(value(args, ++i, arg));
+                        break;
+                    case "--latency-ms":
+                        latency = Long.parseLong(value(args, ++i, arg));
+                        break;
+                    case "--jitter-ms":
+                        jitter = Long.parseLong(value(args, ++i, arg));
+                        break;
+                    case "--error-rate":
+                        errorRate = Double.parseDouble(value(args, ++i, arg));
+                        break;
+                    case "--max-rps":
+                        maxRate = Integer.parseInt(value(args, ++i, arg));
+                        break;
+                    case "--strict":
+                        serveMisses = false;
+                        break;
+                    case "--help":
+                    case "-h":
+                        printUsage();
+                        return;
+                    default:
+                        throw new IllegalArgumentException("Unknown argument: " + arg);
+                }
+            }
+            if (fixtures == null) {
+                throw new IllegalArgumentException("--fixtures is required");
+            }
+            if (errorRate < 0 || errorRate > 1) {
+                throw new IllegalArgumentException("--error-rate must be between 0 and 1: " + errorRate);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            printUsage();
+            System.exit(2);
+            return;
+        }
+
+        ReplayServer replay = new ReplayServer(fixtures, port, latency, jitter, errorRate, maxRate, serveMisses);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            replay.close();
+            System.out.println(replay.getRequests() + " requests, " + replay.getInjectedErrors()
+                    + " injected errors, " + replay.getThrottled() + " throttled, " + replay.getNotModified()
+                    + " not modified");
+        }));
+        replay.start();
+        System.out.println("Replaying " + replay.getPageCount() + " recorded pages on " + replay.getBaseUrl());
+        Thread.currentThread().join();
+    }
+
+    void start() {
+        server.start();
+    }
+
+    /** Value to pass as the run's base URL. */
+    String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    int getPageCount() {
+        return rotation.size();
+    }
+
+    long getRequests() {
+        return requests.get();
+    }
+
+    long getInjectedErrors() {
+        return injectedErrors.get();
+    }
+
+    long getThrottled() {
+        return throttled.get();
+    }
+
+    long getNotModified() {
+        return notModified.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        delays.shutdownNow();
+        handlers.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        String path = exchange.getRequestURI().getPath();
+        if (!path.endsWith("/showdetail2.jsp")) {
+            respond(exchange, 404, null, false);
+            return;
+        }
+        if (!tryAcquireThrottle()) {
+            throttled.incrementAndGet();
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            respond(exchange, 429, null, false);
+            return;
+        }
+
+        long delay = latencyMillis;
+        if (jitterMillis > 0) {
+            delay += ThreadLocalRandom.current().nextLong(jitterMillis + 1);
+        }
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            injectedErrors.incrementAndGet();
+            schedule(exchange, 503, null, delay);
+            return;
+        }
+
+        Page page = lookup(countyOf(path), accountOf(exchange.getRequestURI().getRawQuery()));
+        if (page != null && page.etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            notModified.incrementAndGet();
+            exchange.getResponseHeaders().set("ETag", page.etag);
+            schedule(exchange, 304, null, delay);
+            return;
+        }
+        schedule(exchange, page != null ? 200 : 404, page, delay);
+    }
+
+    private void schedule(HttpExchange exchange, int status, Page page, long delayMillis) throws IOException {
+        if (delayMillis <= 0) {
+            respond(exchange, status, page, acceptsGzip(exchange));
+            return;
+        }
+        boolean gzip = acceptsGzip(exchange);
+        delays.schedule(() -> {
+            try {
+                respond(exchange, status, page, gzip);
+            } catch (IOException e) {
+                // Client gave up; nothing to report to
+                exchange.close();
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static void respond(HttpExchange exchange, int status, Page page, boolean gzip) throws IOException {
+        try (exchange) {
+            byte[] body = page == null ? new byte[0] : gzip ? page.gzipped : page.raw;
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+            if (page != null) {
+                exchange.getResponseHeaders().set("ETag", page.etag);
+                if (gzip) {
+                    exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+                }
+            }
+            exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+            if (body.length > 0) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        }
+    }
+
+    private Page lookup(String county, String account) {
+        if (account == null) {
+            return null;
+        }
+        Page page = pages.get(county + "/" + account);
+        if (page == null) {
+            page = pages.get(account);
+        }
+        if (page == null && serveMisses && !rotation.isEmpty()) {
+            page = rotation.get(Math.floorMod(nextInRotation.getAndIncrement(), rotation.size()));
+        }
+        return page;
+    }
+
+    // Fixed one-second window; coarse, but all a load test needs to exercise 429 handling
+    private synchronized boolean tryAcquireThrottle() {
+        if (maxRequestsPerSecond <= 0) {
+            return true;
+        }
+        long now = System.nanoTime();
+        if (now - throttleWindowStart >= TimeUnit.SECONDS.toNanos(1)) {
+            throttleWindowStart = now;
+            throttleWindowCount = 0;
+        }
+        return ++throttleWindowCount <= maxRequestsPerSecond;
+    }
+
+    private void loadFixtures(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            throw new IOException("Fixture directory not found: " + directory);
+        }
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(directory, 2)) {
+            files = walk.filter(file -> file.getFileName().toString().endsWith(".html")).sorted()
+                    .collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            String account = name.substring(0, name.length() - ".html".length());
+            Path parent = directory.relativize(file).getParent();
+            String key = parent == null ? account : parent.toString().toLowerCase(Locale.ROOT) + "/" + account;
+            Page page = new Page(Files.readAllBytes(file));
+            pages.put(key, page);
+            rotation.add(page);
+        }
+    }
+
+    // "/act_webdev/bexar/showdetail2.jsp" -> "bexar"
+    private static String countyOf(String path) {
+        int end = path.lastIndexOf('/');
+        int start = path.lastIndexOf('/', end - 1);
+        return end > 0 ? path.substring(start + 1, end).toLowerCase(Locale.ROOT) : "";
+    }
+
+    private static String accountOf(String query) {
+        if (query == null) {
+            return null;
+        }
+        for (String parameter : query.split("&")) {
+            if (parameter.startsWith("can=")) {
+                return URLDecoder.decode(parameter.substring(4), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private static boolean acceptsGzip(HttpExchange exchange) {
+        String accepted = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        return accepted != null && accepted.toLowerCase(Locale.ROOT).contains("gzip");
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static String value(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + option);
+        }
+        return args[index];
+    }
+
+    private static void printUsage() {
+        System.err.println("Usage: java -cp TaxFetcherApp.jar com.fi.taxfetcherapp.ReplayServer"
+                + " --fixtures <dir> [options]");
+        System.err.println("  --port <n>               Listen port on 127.0.0.1 (default " + DEFAULT_PORT + ")");
+        System.err.println("  --latency-ms <n>         Delay before each response (default 0)");
+        System.err.println("  --jitter-ms <n>          Extra random delay, 0-n ms (default 0)");
+        System.err.println("  --error-rate <0-1>       Fraction of requests answered with 503 (default 0)");
+        System.err.println("  --max-rps <n>            Answer requests over n per second with 429 (default off)");
+        System.err.println("  --strict                 404 for accounts without a recording instead of rotating");
+    }
+
+    // A recorded page, compressed once up front so gzip responses cost nothing per request
+    private static final class Page {
+        final byte[] raw;
+        final byte[] gzipped;
+        final String etag;
+
+        Page(byte[] raw) throws IOException {
+            this.raw = raw;
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(raw.length / 4 + 64);
+            try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+                out.write(raw);
+            }
+            this.gzipped = buffer.toByteArray();
+            this.etag = "\"" + Integer.toHexString(Arrays.hashCode(raw)) + "-" + raw.length + "\"";
+        }
+    }
+}
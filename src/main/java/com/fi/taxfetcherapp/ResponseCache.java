@@ -0,0 +1,203 @@
+package com.fi.taxfetcherapp;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * On-disk cache of raw detail-page HTML keyed by county and account number.
+ * Entries are gzip files named by the SHA-256 of the key, so a lookup is a
+ * single index probe plus one file read. The directory is listed once when the
+ * cache is opened to build an in-memory index in least-recently-used order;
+ * once the stored bytes exceed the size cap the least recently used entries are
+ * deleted. Entries older than the caller's TTL are treated as misses.
+ */
+final class ResponseCache {
+    private static final String SUFFIX = ".html.gz";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> index = new LinkedHashMap<>(1024, 0.75f, true);
+    private long totalBytes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private ResponseCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    static ResponseCache open(Path directory, long maxBytes) throws IOException {
+        Files.createDirectories(directory);
+        ResponseCache cache = new ResponseCache(directory, maxBytes);
+        cache.loadIndex();
+        return cache;
+    }
+
+    /**
+     * Returns the cached page for the account, or null if it is missing or
+     * older than {@code maxAge}.
+     */
+    byte[] get(String county, String accountNumber, Duration maxAge) {
+        String hash = keyHash(county, accountNumber);
+        Entry entry;
+        synchronized (this) {
+            entry = index.get(hash);
+            if (entry != null && System.currentTimeMillis() - entry.storedAt > maxAge.toMillis()) {
+                remove(hash, entry);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(entry.path))) {
+            byte[] body = in.readAllBytes();
+            hits.incrementAndGet();
+            return body;
+        } catch (IOException e) {
+            // Evicted concurrently or unreadable; drop it and treat as a miss
+            synchronized (this) {
+                if (index.get(hash) == entry) {
+                    remove(hash, entry);
+                }
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+    }
+
+    void put(String county, String accountNumber, byte[] body) throws IOException {
+        String hash = keyHash(county, accountNumber);
+        Path target = directory.resolve(hash + SUFFIX);
+        Path temp = Files.createTempFile(directory, hash, ".tmp");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp), 8192)) {
+                out.write(body);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        long size = Files.size(target);
+        synchronized (this) {
+            Entry previous = index.put(hash, new Entry(target, size, System.currentTimeMillis()));
+            if (previous != null) {
+                totalBytes -= previous.size;
+            }
+            totalBytes += size;
+            evictOverCapacity();
+        }
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+
+    synchronized int size() {
+        return index.size();
+    }
+
+    synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private void loadIndex() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                entries.add(new Entry(file, attributes.size(), attributes.lastModifiedTime().toMillis()));
+            }
+        }
+        // Oldest first, so the access-ordered index starts in approximate LRU order
+        entries.sort(Comparator.comparingLong(entry -> entry.storedAt));
+        synchronized (this) {
+            for (Entry entry : entries) {
+                String name = entry.path.getFileName().toString();
+                index.put(name.substring(0, name.length() - SUFFIX.length()), entry);
+                totalBytes += entry.size;
+            }
+            evictOverCapacity();
+        }
+    }
+
+    private void evictOverCapacity() {
+        Iterator<Map.Entry<String, Entry>> eldest = index.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Entry entry = eldest.next().getValue();
+            eldest.remove();
+            totalBytes -= entry.size;
+            deleteQuietly(entry.path);
+        }
+    }
+
+    private void remove(String hash, Entry entry) {
+        index.remove(hash);
+        totalBytes -= entry.size;
+        deleteQuietly(entry.path);
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (NoSuchFileException ignored) {
+            // already gone
+        } catch (IOException e) {
+            // Left behind; it will be re-indexed and evicted on the next open
+        }
+    }
+
+    static String keyHash(String county, String accountNumber) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((county.toLowerCase(Locale.ROOT) + "|" + accountNumber)
+                    .getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class Entry {
+        final Path path;
+        final long size;
+        final long storedAt;
+
+        Entry(Path path, long size, long storedAt) {
+            this.path = path;
+            this.size = size;
+            this.storedAt = storedAt;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.fi.taxfetcherapp;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.SocketException;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Resilience layer around {@link HttpFetcher}. Failures are classified:
+ * timeouts, connection errors and 429/5xx responses are retried with
+ * exponential backoff and full jitter (or the server's {@code Retry-After},
+ * when given), while other 4xx responses such as 404 fail immediately. Each
+ * host has a {@link CircuitBreaker} that pauses all workers for that host
+ * when its error rate spikes. Backoff sleeps only the worker whose request
+ * failed; other in-flight fetches carry on. While it sleeps, or waits on an
+ * open circuit, the worker hands its pipeline {@link FetchEngine.Permit}
+ * back, so a failing host cannot tie up the permits another host's fetches
+ * need. Every attempt holds a slot of the
+ * caller's {@link AdaptiveConcurrencyLimiter} while on the wire and reports
+ * its latency or failure back to it. A 429 only backs off the limiter: the
+ * host is answering, just asking for less, so it does not count towards
+ * opening the circuit.
+ */
+final class RetryingFetcher {
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long BASE_DELAY_MILLIS = 500;
+    private static final long MAX_DELAY_MILLIS = 30_000;
+    private static final long MAX_RETRY_AFTER_MILLIS = 5 * 60_000;
+
+    private static final int BREAKER_WINDOW = 20;
+    private static final int BREAKER_MINIMUM_CALLS = 10;
+    private static final double BREAKER_FAILURE_RATE = 0.5;
+    private static final Duration BREAKER_COOLDOWN = Duration.ofSeconds(15);
+    private static final Duration BREAKER_MAX_COOLDOWN = Duration.ofMinutes(5);
+
+    private final HttpFetcher httpFetcher;
+    private final PipelineMetrics metrics;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    RetryingFetcher(HttpFetcher httpFetcher, PipelineMetrics metrics) {
+        this.httpFetcher = httpFetcher;
+        this.metrics = metrics;
+    }
+
+    /** See {@link HttpFetcher#prepare()}. */
+    void prepare() {
+        httpFetcher.prepare();
+    }
+
+    /**
+     * Fetches {@code url}, waiting on the host's circuit breaker, rate limiter
+     * and concurrency limiter before every attempt. {@code permit} is the
+     * calling stage's, given back during backoff and open-circuit waits.
+     * {@code log} receives retry and circuit breaker notices.
+     */
+    HttpFetcher.FetchResponse fetch(String url, HostRateLimiter rateLimiter, AdaptiveConcurrencyLimiter limiter,
+                                    FetchEngine.Permit permit, Consumer<String> log)
+            throws IOException, InterruptedException {
+        return fetch(url, null, null, rateLimiter, limiter, permit, log);
+    }
+
+    /** Conditional variant; see {@link HttpFetcher#fetch(String, String, String)}. */
+    HttpFetcher.FetchResponse fetch(String url, String etag, String lastModified, HostRateLimiter rateLimiter,
+                                    AdaptiveConcurrencyLimiter limiter, FetchEngine.Permit permit,
+                                    Consumer<String> log) throws IOException, InterruptedException {
+        String host = HostRateLimiter.hostOf(url);
+        CircuitBreaker breaker = breakers.computeIfAbsent(host, h -> new CircuitBreaker(h,
+                BREAKER_WINDOW, BREAKER_MINIMUM_CALLS, BREAKER_FAILURE_RATE, BREAKER_COOLDOWN, BREAKER_MAX_COOLDOWN));
+
+        for (int attempt = 1; ; attempt++) {
+            CircuitBreaker.Permission permission = breaker.tryAcquirePermission();
+            if (permission == null) {
+                permit.release();
+                permission = breaker.acquirePermission();
+                try {
+                    permit.reacquire();
+                } catch (InterruptedException e) {
+                    breaker.onIgnored(permission);
+                    throw e;
+                }
+            }
+            HttpFetcher.FetchResponse response;
+            boolean holdingSlot = false;
+            try {
+                rateLimiter.acquire(host);
+                limiter.acquire();
+                holdingSlot = true;
+                long sentAt = System.nanoTime();
+                response = httpFetcher.fetch(url, etag, lastModified);
+                limiter.onSuccess(System.nanoTime() - sentAt);
+            } catch (IOException e) {
+                if (!isRetryable(e)) {
+                    // The host answered; the request itself is bad
+                    limiter.onIgnored();
+                    breaker.onSuccess(permission);
+                    throw e;
+                }
+                limiter.onDropped(e instanceof HttpStatusException
+                        ? ((HttpStatusException) e).getRetryAfter() : null);
+                if (e instanceof HttpStatusException && ((HttpStatusException) e).getStatusCode() == 429) {
+                    breaker.onIgnored(permission);
+                } else if (breaker.onFailure(permission)) {
+                    log.accept("Circuit opened for " + host + ": pausing requests for "
+                            + breaker.getRemainingCooldown().toSeconds() + "s");
+                }
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                long delay = backoffMillis(attempt, e);
+                metrics.retry(e);
+                log.accept("Retrying " + url + " in " + delay + " ms (attempt " + (attempt + 1) + "/"
+                        + MAX_ATTEMPTS + "): " + e.getMessage());
+                permit.release();
+                TimeUnit.MILLISECONDS.sleep(delay);
+                permit.reacquire();
+                continue;
+            } catch (InterruptedException | RuntimeException e) {
+                if (holdingSlot) {
+                    limiter.onIgnored();
+                }
+                breaker.onIgnored(permission);
+                throw e;
+            }
+            breaker.onSuccess(permission);
+            return response;
+        }
+    }
+
+    static boolean isRetryable(IOException e) {
+        if (e instanceof HttpStatusException) {
+            int status = ((HttpStatusException) e).getStatusCode();
+            return status == 408 || status == 429 || status == 500 || status == 502
+                    || status == 503 || status == 504;
+        }
+        // Timeouts, refused/reset connections and other transport errors. The HTTP client reports closed
+        // connections and protocol errors as plain IOExceptions, so those are retried too; any subclass not
+        // listed here (an unreadable body, a corrupt gzip stream) says the response itself is bad.
+        return e instanceof HttpTimeoutException || e instanceof SocketException
+                || e instanceof EOFException || e.getClass() == IOException.class;
+    }
+
+    static long backoffMillis(int attempt, IOException failure) {
+        if (failure instanceof HttpStatusException) {
+            Duration retryAfter = ((HttpStatusException) failure).getRetryAfter();
+            if (retryAfter != null) {
+                return Math.min(MAX_RETRY_AFTER_MILLIS, retryAfter.toMillis());
+            }
+        }
+        // Jittered: uniform between half and all of the exponential ceiling
+        long ceiling = Math.min(MAX_DELAY_MILLIS, BASE_DELAY_MILLIS << Math.min(20, attempt - 1));
+        return ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+    }
+}
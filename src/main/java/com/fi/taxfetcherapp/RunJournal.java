@@ -0,0 +1,227 @@
+package com.fi.taxfetcherapp;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only journal of completed fetches for one input file. Every finished
+ * account is appended as a single line holding its FETCH_STATUS and the fields
+ * the fetch added or changed. Appends are buffered and the file is fsynced
+ * every {@value #SYNC_EVERY_RECORDS} records or few seconds, so a crash loses at
+ * most that window. When a run over the same input is restarted, accounts whose
+ * latest entry is SUCCESS are rebuilt from the journal instead of refetched.
+ *
+ * <p>Line format: {@code account<TAB>key=value<TAB>...<TAB>$}. The trailing
+ * {@code $} marks a complete line, so a line torn by a crash is ignored.
+ */
+final class RunJournal implements AutoCloseable {
+    private static final int SYNC_EVERY_RECORDS = 50;
+    private static final long SYNC_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final String END_MARKER = "$";
+
+    private final Path journalFile;
+    private final Map<String, Map<String, String>> completed;
+    private final FileChannel channel;
+    private final Writer writer;
+    private int unsyncedRecords;
+    private long lastSync = System.nanoTime();
+
+    private RunJournal(Path journalFile, Map<String, Map<String, String>> completed) throws IOException {
+        this.journalFile = journalFile;
+        this.completed = completed;
+        this.channel = FileChannel.open(journalFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), 64 * 1024);
+        if (endsWithTornLine(journalFile)) {
+            // Start on a fresh line so the next entry is not glued to the torn one
+            writer.write('\n');
+        }
+    }
+
+    /**
+     * Opens (or creates) the journal for the given input file under
+     * {@code journalDir}, loading any successful entries from a previous run.
+     */
+    static RunJournal open(Path journalDir, File inputFile) throws IOException {
+        Files.createDirectories(journalDir);
+        Path journalFile = journalDir.resolve(journalName(inputFile));
+        return new RunJournal(journalFile, load(journalFile));
+    }
+
+    Path getJournalFile() {
+        return journalFile;
+    }
+
+    /** Number of accounts that a previous run already fetched successfully. */
+    int getResumableCount() {
+        return completed.size();
+    }
+
+    /**
+     * Rebuilds the record for an account that already succeeded from
+     * {@code original} plus its journaled fields, or returns null if the
+     * account must be fetched.
+     */
+    TaxRecord restore(String accountNumber, TaxRecord original) {
+        Map<String, String> fields = completed.get(accountNumber);
+        if (fields == null) {
+            return null;
+        }
+        TaxRecord restored = original.copy();
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            restored.set(field.getKey(), field.getValue());
+        }
+        return restored;
+    }
+
+    /**
+     * Appends the outcome for one account: every column of {@code updated} that
+     * differs from {@code original}.
+     */
+    synchronized void append(String accountNumber, TaxRecord original, TaxRecord updated) throws IOException {
+        StringBuilder line = new StringBuilder(256);
+        appendEscaped(line, accountNumber);
+        RecordSchema schema = updated.getSchema();
+        for (int column = 0; column < schema.size(); column++) {
+            if (updated.differsAt(column, original)) {
+                line.append('\t');
+                appendEscaped(line, schema.nameAt(column));
+                line.append('=');
+                appendEscaped(line, updated.get(column));
+            }
+        }
+        line.append('\t').append(END_MARKER).append('\n');
+        writer.write(line.toString());
+
+        unsyncedRecords++;
+        long now = System.nanoTime();
+        if (unsyncedRecords >= SYNC_EVERY_RECORDS || now - lastSync >= SYNC_INTERVAL_NANOS) {
+            sync();
+        }
+    }
+
+    /** Closes the journal and removes it once the run's output has been saved. */
+    synchronized void complete() throws IOException {
+        close();
+        Files.deleteIfExists(journalFile);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel.isOpen()) {
+            sync();
+            writer.close();
+        }
+    }
+
+    private void sync() throws IOException {
+        writer.flush();
+        channel.force(false);
+        unsyncedRecords = 0;
+        lastSync = System.nanoTime();
+    }
+
+    private static Map<String, Map<String, String>> load(Path journalFile) throws IOException {
+        Map<String, Map<String, String>> completed = new HashMap<>();
+        if (!Files.exists(journalFile)) {
+            return completed;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(journalFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split("\t", -1);
+                if (parts.length < 2 || !END_MARKER.equals(parts[parts.length - 1])) {
+                    continue; // torn write from a crash
+                }
+                String accountNumber = unescape(parts[0]);
+                Map<String, String> fields = new LinkedHashMap<>();
+                for (int i = 1; i < parts.length - 1; i++) {
+                    int eq = parts[i].indexOf('=');
+                    if (eq > 0) {
+                        fields.put(unescape(parts[i].substring(0, eq)), unescape(parts[i].substring(eq + 1)));
+                    }
+                }
+                // The latest entry for an account wins
+                if ("SUCCESS".equals(fields.get("FETCH_STATUS"))) {
+                    completed.put(accountNumber, fields);
+                } else {
+                    completed.remove(accountNumber);
+                }
+            }
+        }
+        return completed;
+    }
+
+    private static boolean endsWithTornLine(Path journalFile) throws IOException {
+        try (FileChannel in = FileChannel.open(journalFile, StandardOpenOption.READ)) {
+            long size = in.size();
+            if (size == 0) {
+                return false;
+            }
+            ByteBuffer last = ByteBuffer.allocate(1);
+            in.read(last, size - 1);
+            return last.get(0) != '\n';
+        }
+    }
+
+    private static String journalName(File inputFile) {
+        String absolutePath = inputFile.getAbsolutePath();
+        String baseName = inputFile.getName().replaceAll("[^A-Za-z0-9._-]", "_");
+        return baseName + "-" + Integer.toHexString(absolutePath.hashCode()) + ".journal";
+    }
+
+    // Shared with AccountStateStore, which uses the same line encoding
+    static void appendEscaped(StringBuilder out, String value) {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\': out.append("\\\\"); break;
+                case '\t': out.append("\\t"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '=': out.append("\\e"); break;
+                default: out.append(c);
+            }
+        }
+    }
+
+    static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder out = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                switch (next) {
+                    case 't': out.append('\t'); break;
+                    case 'n': out.append('\n'); break;
+                    case 'r': out.append('\r'); break;
+                    case 'e': out.append('='); break;
+                    default: out.append(next);
+                }
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,298 @@
+package com.fi.taxfetcherapp;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Settings for one fetch run, shared by the Swing and command-line clients.
+ */
+final class RunOptions {
+    static final int DEFAULT_CONCURRENCY = 5;
+    static final int MAX_CONCURRENCY = 32;
+    static final double DEFAULT_REQUESTS_PER_SECOND = 2.0;
+    static final int DEFAULT_ROW_WINDOW = 100;
+    static final int DEFAULT_CACHE_TTL_HOURS = 24;
+    static final String FORMAT_XLSX = "xlsx";
+    static final String FORMAT_CSV = "csv";
+    static final String FORMAT_NDJSON = "ndjson";
+    static final int DEFAULT_METRICS_INTERVAL_SECONDS = 10;
+    static final int DEFAULT_FRESHNESS_HOURS = 24;
+    static final double DEFAULT_LOAN_RATE = 0.12;
+    static final int DEFAULT_LOAN_TERM_MONTHS = 120;
+    static final double DEFAULT_LOAN_FEES = 900;
+    static final double DEFAULT_PURCHASE_RATIO = 0.70;
+
+    private String county = "Bexar";
+    private int concurrency = DEFAULT_CONCURRENCY;
+    private int minConcurrency = 1;
+    private int maxConcurrency = MAX_CONCURRENCY;
+    private double requestsPerSecond = DEFAULT_REQUESTS_PER_SECOND;
+    private int rowWindow = DEFAULT_ROW_WINDOW;
+    private Duration cacheTtl = Duration.ofHours(DEFAULT_CACHE_TTL_HOURS);
+    private boolean offline;
+    private String outputFormat = FORMAT_XLSX;
+    private Path outputDirectory = Paths.get("output");
+    private String baseUrl;
+    private Path fixtureRecordDirectory;
+    private boolean incremental;
+    private Duration freshness = Duration.ofHours(DEFAULT_FRESHNESS_HOURS);
+    private File previousOutput;
+    private int parseThreads = Runtime.getRuntime().availableProcessors();
+    private Duration metricsInterval = Duration.ofSeconds(DEFAULT_METRICS_INTERVAL_SECONDS);
+    private double loanRate = DEFAULT_LOAN_RATE;
+    private int loanTermMonths = DEFAULT_LOAN_TERM_MONTHS;
+    private double loanFees = DEFAULT_LOAN_FEES;
+    private double purchaseRatio = DEFAULT_PURCHASE_RATIO;
+
+    String getCounty() {
+        return county;
+    }
+
+    void setCounty(String county) {
+        this.county = county;
+    }
+
+    int getConcurrency() {
+        return concurrency;
+    }
+
+    void setConcurrency(int concurrency) {
+        if (concurrency < 1 || concurrency > MAX_CONCURRENCY) {
+            throw new IllegalArgumentException("Concurrency must be between 1 and " + MAX_CONCURRENCY + ": "
+                    + concurrency);
+        }
+        this.concurrency = concurrency;
+    }
+
+    /** Floor for the adaptive concurrency limit. */
+    int getMinConcurrency() {
+        return minConcurrency;
+    }
+
+    void setMinConcurrency(int minConcurrency) {
+        if (minConcurrency < 1 || minConcurrency > MAX_CONCURRENCY) {
+            throw new IllegalArgumentException("Minimum concurrency must be between 1 and " + MAX_CONCURRENCY + ": "
+                    + minConcurrency);
+        }
+        this.minConcurrency = minConcurrency;
+    }
+
+    /** Ceiling for the adaptive concurrency limit; set it equal to the floor for a fixed limit. */
+    int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    void setMaxConcurrency(int maxConcurrency) {
+        if (maxConcurrency < 1 || maxConcurrency > MAX_CONCURRENCY) {
+            throw new IllegalArgumentException("Maximum concurrency must be between 1 and " + MAX_CONCURRENCY + ": "
+                    + maxConcurrency);
+        }
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Checks the settings that constrain each other, which the setters cannot
+     * do one at a time: the concurrency floor must not exceed the ceiling and
+     * the starting concurrency must lie between them.
+     */
+    void validate() {
+        if (minConcurrency > maxConcurrency) {
+            throw new IllegalArgumentException("Minimum concurrency " + minConcurrency
+                    + " is above maximum concurrency " + maxConcurrency);
+        }
+        if (concurrency < minConcurrency || concurrency > maxConcurrency) {
+            throw new IllegalArgumentException("Concurrency must be between the minimum " + minConcurrency
+                    + " and maximum " + maxConcurrency + ": " + concurrency);
+        }
+    }
+
+    double getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+
+    void setRequestsPerSecond(double requestsPerSecond) {
+        if (requestsPerSecond <= 0) {
+            throw new IllegalArgumentException("Requests per second must be positive: " + requestsPerSecond);
+        }
+        this.requestsPerSecond = requestsPerSecond;
+    }
+
+    int getRowWindow() {
+        return rowWindow;
+    }
+
+    void setRowWindow(int rowWindow) {
+        this.rowWindow = Math.max(0, rowWindow);
+    }
+
+    Duration getCacheTtl() {
+        return cacheTtl;
+    }
+
+    void setCacheTtl(Duration cacheTtl) {
+        if (cacheTtl.isNegative()) {
+            throw new IllegalArgumentException("Cache TTL cannot be negative: " + cacheTtl);
+        }
+        this.cacheTtl = cacheTtl;
+    }
+
+    boolean isOffline() {
+        return offline;
+    }
+
+    void setOffline(boolean offline) {
+        this.offline = offline;
+    }
+
+    String getOutputFormat() {
+        return outputFormat;
+    }
+
+    void setOutputFormat(String outputFormat) {
+        if (!RecordSinks.isSupported(outputFormat)) {
+            throw new IllegalArgumentException("Unsupported output format: " + outputFormat
+                    + " (available: " + String.join(", ", RecordSinks.formats()) + ")");
+        }
+        this.outputFormat = outputFormat.toLowerCase(Locale.ROOT);
+    }
+
+    Path getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    void setOutputDirectory(Path outputDirectory) {
+        this.outputDirectory = outputDirectory;
+    }
+
+    /**
+     * Scheme, host and port that replace each county's own in detail URLs,
+     * e.g. a local {@link ReplayServer}; null fetches from the county sites.
+     */
+    String getBaseUrl() {
+        return baseUrl;
+    }
+
+    void setBaseUrl(String baseUrl) {
+        if (baseUrl != null && baseUrl.endsWith("/")) {
+            baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+        }
+        this.baseUrl = baseUrl;
+    }
+
+    /** Directory that fetched pages are also saved to as replay fixtures, or null. */
+    Path getFixtureRecordDirectory() {
+        return fixtureRecordDirectory;
+    }
+
+    void setFixtureRecordDirectory(Path fixtureRecordDirectory) {
+        this.fixtureRecordDirectory = fixtureRecordDirectory;
+    }
+
+    /**
+     * Incremental refresh: accounts fetched within {@link #getFreshness()} are
+     * reused without a request, older ones are revalidated with conditional
+     * GETs, and new or changed rows also go to a separate changes file.
+     */
+    boolean isIncremental() {
+        return incremental;
+    }
+
+    void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    Duration getFreshness() {
+        return freshness;
+    }
+
+    void setFreshness(Duration freshness) {
+        if (freshness.isNegative()) {
+            throw new IllegalArgumentException("Freshness cannot be negative: " + freshness);
+        }
+        this.freshness = freshness;
+    }
+
+    /** An earlier output workbook to seed the account state store from, or null. */
+    File getPreviousOutput() {
+        return previousOutput;
+    }
+
+    void setPreviousOutput(File previousOutput) {
+        this.previousOutput = previousOutput;
+    }
+
+    /** Size of the CPU-bound parse/extract pool, independent of fetch concurrency. */
+    int getParseThreads() {
+        return parseThreads;
+    }
+
+    void setParseThreads(int parseThreads) {
+        if (parseThreads < 1) {
+            throw new IllegalArgumentException("Parse threads must be at least 1: " + parseThreads);
+        }
+        this.parseThreads = parseThreads;
+    }
+
+    /** How often the metrics snapshot files are rewritten; zero writes only the final one. */
+    Duration getMetricsInterval() {
+        return metricsInterval;
+    }
+
+    void setMetricsInterval(Duration metricsInterval) {
+        if (metricsInterval.isNegative()) {
+            throw new IllegalArgumentException("Metrics interval cannot be negative: " + metricsInterval);
+        }
+        this.metricsInterval = metricsInterval;
+    }
+
+    /** Annual interest rate of the tax loan in the derived columns, as a fraction (0.12 = 12%). */
+    double getLoanRate() {
+        return loanRate;
+    }
+
+    void setLoanRate(double loanRate) {
+        if (!(loanRate >= 0 && loanRate < 1)) {
+            throw new IllegalArgumentException("Loan rate must be at least 0% and below 100%: " + loanRate * 100);
+        }
+        this.loanRate = loanRate;
+    }
+
+    int getLoanTermMonths() {
+        return loanTermMonths;
+    }
+
+    void setLoanTermMonths(int loanTermMonths) {
+        if (loanTermMonths < 1) {
+            throw new IllegalArgumentException("Loan term must be at least one month: " + loanTermMonths);
+        }
+        this.loanTermMonths = loanTermMonths;
+    }
+
+    /** Closing fees financed with the tax loan, in dollars. */
+    double getLoanFees() {
+        return loanFees;
+    }
+
+    void setLoanFees(double loanFees) {
+        if (!(loanFees >= 0)) {
+            throw new IllegalArgumentException("Loan fees cannot be negative: " + loanFees);
+        }
+        this.loanFees = loanFees;
+    }
+
+    /** Share of the total value used as the estimated maximum purchase price, as a fraction. */
+    double getPurchaseRatio() {
+        return purchaseRatio;
+    }
+
+    void setPurchaseRatio(double purchaseRatio) {
+        if (!(purchaseRatio > 0 && purchaseRatio <= 1)) {
+            throw new IllegalArgumentException("Purchase ratio must be above 0% and at most 100%: "
+                    + purchaseRatio * 100);
+        }
+        this.purchaseRatio = purchaseRatio;
+    }
+}
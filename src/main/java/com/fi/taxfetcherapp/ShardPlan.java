@@ -0,0 +1,308 @@
+package com.fi.taxfetcherapp;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Properties;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+/**
+ * A run split into hash partitions so several worker processes, on this
+ * machine or on other nodes sharing the directory, can each fetch a part
+ * with their own rate budget. Rows are assigned by a hash of their county and
+ * normalized account number, so duplicates of an account land in the same
+ * shard and are still fetched once. Each shard's input keeps the original
+ * row order, which lets {@link #merge} rebuild the single output workbook a
+ * plain run would have written by walking the original input again.
+ *
+ * <p>Directory layout: {@code shards.properties} (the plan),
+ * {@code shard-NN.xlsx} (inputs), {@code shard-NN/} (each shard's output,
+ * journal and cache) and {@code shard-NN.done} (the finished shard's output
+ * file name). A shard without a done marker is simply run again; its journal
+ * skips the accounts it had already fetched.
+ */
+final class ShardPlan {
+    private static final String PLAN_FILE = "shards.properties";
+
+    private final Path directory;
+    private final File inputFile;
+    private final int shardCount;
+    private final CountyAdapter county;
+
+    private ShardPlan(Path directory, File inputFile, int shardCount, CountyAdapter county) {
+        this.directory = directory;
+        this.inputFile = inputFile;
+        this.shardCount = shardCount;
+        this.county = county;
+    }
+
+    /**
+     * Splits {@code inputFile} into {@code shardCount} shard inputs under
+     * {@code directory}, or reopens the plan already there when it was made
+     * from the same, unchanged input with the same settings.
+     */
+    static ShardPlan create(Path directory, File inputFile, int shardCount, CountyAdapter county)
+            throws IOException {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be at least 1: " + shardCount);
+        }
+        Properties expected = describe(inputFile, shardCount, county);
+        Path planFile = directory.resolve(PLAN_FILE);
+        if (Files.exists(planFile)) {
+            Properties existing = readProperties(planFile);
+            if (!existing.equals(expected)) {
+                throw new IllegalStateException(directory + " holds a shard plan for a different input or "
+                        + "settings; remove it or choose another output directory");
+            }
+            return new ShardPlan(directory, inputFile.getAbsoluteFile(), shardCount, county);
+        }
+
+        Files.createDirectories(directory);
+        ShardPlan plan = new ShardPlan(directory, inputFile.getAbsoluteFile(), shardCount, county);
+        plan.split();
+        // Written last: a plan file means every shard input is complete
+        Path temp = Files.createTempFile(directory, PLAN_FILE, ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                expected.store(writer, "Shard plan");
+            }
+            Files.move(temp, planFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return plan;
+    }
+
+    static ShardPlan load(Path directory) throws IOException {
+        Path planFile = directory.resolve(PLAN_FILE);
+        if (!Files.exists(planFile)) {
+            throw new IllegalArgumentException("No shard plan in " + directory);
+        }
+        Properties plan = readProperties(planFile);
+        CountyAdapter county = CountyAdapters.find(plan.getProperty("county"));
+        if (county == null) {
+            throw new IllegalArgumentException("Shard plan names an unknown county: " + plan.getProperty("county"));
+        }
+        return new ShardPlan(directory, new File(plan.getProperty("input")),
+                Integer.parseInt(plan.getProperty("shards")), county);
+    }
+
+    Path getDirectory() {
+        return directory;
+    }
+
+    int getShardCount() {
+        return shardCount;
+    }
+
+    CountyAdapter getCounty() {
+        return county;
+    }
+
+    Path shardInput(int shard) {
+        return directory.resolve(shardName(shard) + ".xlsx");
+    }
+
+    Path shardOutputDirectory(int shard) {
+        return directory.resolve(shardName(shard));
+    }
+
+    Path doneMarker(int shard) {
+        return directory.resolve(shardName(shard) + ".done");
+    }
+
+    Path lockFile(int shard) {
+        return directory.resolve(shardName(shard) + ".lock");
+    }
+
+    boolean isDone(int shard) {
+        return Files.exists(doneMarker(shard));
+    }
+
+    int countDone() {
+        int done = 0;
+        for (int shard = 0; shard < shardCount; shard++) {
+            if (isDone(shard)) {
+                done++;
+            }
+        }
+        return done;
+    }
+
+    /** Records a finished shard; written atomically so a marker always names a complete output. */
+    void markDone(int shard, Path outputFile) throws IOException {
+        Path temp = Files.createTempFile(directory, shardName(shard), ".tmp");
+        try {
+            Files.write(temp, outputFile.getFileName().toString().getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, doneMarker(shard), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Writes the merged output into {@code outputDirectory} in {@code format},
+     * in the original input's row order. Every shard must be done. The derived
+     * loan columns are recomputed with {@code calculator}.
+     */
+    Path merge(Path outputDirectory, String format, int rowWindow, LoanCalculator calculator) throws Exception {
+        if (countDone() < shardCount) {
+            throw new IllegalStateException((shardCount - countDone()) + " of " + shardCount
+                    + " shards are not finished yet");
+        }
+        Files.createDirectories(outputDirectory);
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        Path outputFile = outputDirectory.resolve(county.getName() + "_Tax_Details_" + timestamp
+                + RecordSinks.extension(format));
+
+        ExcelRecordReader[] shardOutputs = new ExcelRecordReader[shardCount];
+        try (ExcelRecordReader input = new ExcelRecordReader(inputFile);
+             RecordSink writer = RecordSinks.open(format, outputFile, rowWindow, calculator)) {
+            for (int shard = 0; shard < shardCount; shard++) {
+                String outputName = new String(Files.readAllBytes(doneMarker(shard)), StandardCharsets.UTF_8).trim();
+                shardOutputs[shard] = new ExcelRecordReader(shardOutputDirectory(shard).resolve(outputName).toFile());
+            }
+            while (input.hasNext()) {
+                TaxRecord row = input.next();
+                String key = accountKey(row, county);
+                if (key == null) {
+                    continue;
+                }
+                int shard = shardOf(key, shardCount);
+                if (!shardOutputs[shard].hasNext()) {
+                    throw new IllegalStateException(shardName(shard) + " output ends before input row "
+                            + input.getRowsRead());
+                }
+                TaxRecord result = shardOutputs[shard].next();
+                if (!key.endsWith("/" + result.get(RecordSchema.ACCOUNT_NUMBER))) {
+                    throw new IllegalStateException(shardName(shard) + " output is out of step at input row "
+                            + input.getRowsRead() + ": expected " + key + ", found "
+                            + result.get(RecordSchema.ACCOUNT_NUMBER));
+                }
+                writer.write(result);
+            }
+            for (int shard = 0; shard < shardCount; shard++) {
+                if (shardOutputs[shard].hasNext()) {
+                    throw new IllegalStateException(shardName(shard) + " output has more rows than its input");
+                }
+            }
+            writer.finish();
+        } finally {
+            for (ExcelRecordReader shardOutput : shardOutputs) {
+                if (shardOutput != null) {
+                    shardOutput.close();
+                }
+            }
+        }
+        return outputFile;
+    }
+
+    /**
+     * The {@code county/account} key TaxFetchEngine fetches a row under, or
+     * null for rows it skips (no TAXID, or one the county cannot normalize).
+     */
+    static String accountKey(TaxRecord row, CountyAdapter defaultCounty) {
+        String taxId = row.get("TAXID");
+        if (taxId.trim().isEmpty()) {
+            return null;
+        }
+        CountyAdapter adapter = CountyAdapters.find(row.get(RecordSchema.JDX));
+        if (adapter == null) {
+            adapter = defaultCounty;
+        }
+        String accountNumber = adapter.normalizeAccountNumber(taxId);
+        return accountNumber == null ? null : adapter.getName() + "/" + accountNumber;
+    }
+
+    static int shardOf(String accountKey, int shardCount) {
+        // String.hashCode is specified, so every JVM on every node agrees
+        return Math.floorMod(accountKey.hashCode(), shardCount);
+    }
+
+    private void split() throws IOException {
+        SXSSFWorkbook[] workbooks = new SXSSFWorkbook[shardCount];
+        Sheet[] sheets = new Sheet[shardCount];
+        int[] nextRows = new int[shardCount];
+        try (ExcelRecordReader input = new ExcelRecordReader(inputFile)) {
+            for (int shard = 0; shard < shardCount; shard++) {
+                workbooks[shard] = new SXSSFWorkbook(100);
+                workbooks[shard].setCompressTempFiles(true);
+                sheets[shard] = workbooks[shard].createSheet("Sheet1");
+            }
+            RecordSchema schema = null;
+            while (input.hasNext()) {
+                TaxRecord row = input.next();
+                if (schema == null) {
+                    schema = row.getSchema();
+                    for (Sheet sheet : sheets) {
+                        writeRow(sheet.createRow(0), schema, null);
+                    }
+                    for (int shard = 0; shard < shardCount; shard++) {
+                        nextRows[shard] = 1;
+                    }
+                }
+                String key = accountKey(row, county);
+                if (key == null) {
+                    continue;
+                }
+                int shard = shardOf(key, shardCount);
+                writeRow(sheets[shard].createRow(nextRows[shard]++), schema, row);
+            }
+            for (int shard = 0; shard < shardCount; shard++) {
+                try (OutputStream out = Files.newOutputStream(shardInput(shard))) {
+                    workbooks[shard].write(out);
+                }
+            }
+        } finally {
+            for (SXSSFWorkbook workbook : workbooks) {
+                if (workbook != null) {
+                    workbook.dispose();
+                    workbook.close();
+                }
+            }
+        }
+    }
+
+    // Header row when row is null; every column as text, as ExcelRecordReader hands values over
+    private static void writeRow(Row target, RecordSchema schema, TaxRecord row) {
+        for (int column = 0; column < schema.size(); column++) {
+            String value = row == null ? schema.nameAt(column) : row.get(column);
+            if (!value.isEmpty()) {
+                target.createCell(column).setCellValue(value);
+            }
+        }
+    }
+
+    private static Properties describe(File inputFile, int shardCount, CountyAdapter county) {
+        Properties plan = new Properties();
+        plan.setProperty("input", inputFile.getAbsolutePath());
+        plan.setProperty("inputSize", Long.toString(inputFile.length()));
+        plan.setProperty("inputModified", Long.toString(inputFile.lastModified()));
+        plan.setProperty("shards", Integer.toString(shardCount));
+        plan.setProperty("county", county.getName());
+        return plan;
+    }
+
+    private static Properties readProperties(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return properties;
+    }
+
+    private static String shardName(int shard) {
+        return String.format("shard-%02d", shard);
+    }
+}
@@ -0,0 +1,208 @@
+package com.fi.taxfetcherapp;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processes the shards of a {@link ShardPlan} until none are left. Any number
+ * of workers, in one process or on several nodes sharing the plan directory,
+ * can run at once: a shard is claimed by atomically creating its lock file,
+ * which holds the claiming worker's owner token, and the lock's modification
+ * time is refreshed while the shard runs. A lock that has not been refreshed
+ * for {@link #STALE_LOCK_AGE} belongs to a worker that died, and its shard is
+ * claimed again. A worker only ever deletes a lock that still holds its own
+ * token; a lock it had to move aside and could not put back is left for
+ * {@link #sweepAsideLocks} once it is stale.
+ */
+final class ShardWorker {
+    static final Duration STALE_LOCK_AGE = Duration.ofMinutes(3);
+    private static final Duration HEARTBEAT_INTERVAL = Duration.ofSeconds(30);
+
+    private final ShardPlan plan;
+    private final TaxFetchEngine engine;
+    // Unique per worker, so two workers in one JVM do not mistake each other's locks for their own
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+
+    ShardWorker(ShardPlan plan, TaxFetchEngine engine) {
+        this.plan = plan;
+        this.engine = engine;
+    }
+
+    /**
+     * Runs unclaimed shards one after another with {@code options}, each into
+     * its own output directory. A shard that fails is released for another
+     * attempt and not retried by this call. Returns the number of shards that
+     * failed here.
+     */
+    int runAll(RunOptions options, ProgressListener listener) throws IOException {
+        int failed = 0;
+        boolean[] attempted = new boolean[plan.getShardCount()];
+        ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "shard-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            sweepAsideLocks(plan.getDirectory());
+            for (int shard = nextShard(attempted); shard >= 0; shard = nextShard(attempted)) {
+                attempted[shard] = true;
+                Path lock = plan.lockFile(shard);
+                ScheduledFuture<?> refresh = heartbeat.scheduleAtFixedRate(() -> refresh(lock),
+                        HEARTBEAT_INTERVAL.toMillis(), HEARTBEAT_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+                try {
+                    listener.log("Shard " + shard + "/" + plan.getShardCount() + " claimed by " + owner);
+                    options.setOutputDirectory(plan.shardOutputDirectory(shard));
+                    // The merge reads shard outputs back as workbooks; only it writes the requested format
+                    options.setOutputFormat(RunOptions.FORMAT_XLSX);
+                    TaxFetchEngine.RunSummary summary = engine.process(plan.shardInput(shard).toFile(), options,
+                            listener);
+                    plan.markDone(shard, summary.getOutputFile());
+                    listener.log("Shard " + shard + " done: " + summary.getProcessed() + " records");
+                } catch (Exception e) {
+                    failed++;
+                    listener.log("Shard " + shard + " failed, released for a retry: " + e.getMessage());
+                } finally {
+                    refresh.cancel(false);
+                    release(lock);
+                }
+            }
+        } finally {
+            heartbeat.shutdownNow();
+        }
+        return failed;
+    }
+
+    // Claims the first shard that is neither done, locked by a live worker, nor already tried here
+    private int nextShard(boolean[] attempted) throws IOException {
+        for (int shard = 0; shard < plan.getShardCount(); shard++) {
+            if (attempted[shard] || plan.isDone(shard)) {
+                continue;
+            }
+            if (claim(plan.lockFile(shard))) {
+                if (plan.isDone(shard)) {
+                    // Finished by another worker between the check and the claim
+                    release(plan.lockFile(shard));
+                    continue;
+                }
+                return shard;
+            }
+        }
+        return -1;
+    }
+
+    boolean claim(Path lock) throws IOException {
+        if (tryCreate(lock)) {
+            return true;
+        }
+        String staleOwner = readOwner(lock);
+        if (staleOwner == null || !isStale(lock)) {
+            return false;
+        }
+        // Its worker stopped refreshing it. Renaming the lock aside is atomic, so of several workers that
+        // saw it stale only one moves it; the others find it gone, or find a new owner's lock and back off.
+        Path aside = lock.resolveSibling(lock.getFileName() + "." + UUID.randomUUID() + ".stale");
+        try {
+            Files.move(lock, aside, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        if (!staleOwner.equals(readOwner(aside)) || !isStale(aside)) {
+            // Another worker took the shard over between our check and the rename: give its lock back
+            giveBack(lock, aside);
+            return false;
+        }
+        Files.deleteIfExists(aside);
+        // Creating the lock is atomic too; a worker that renamed a newer lock aside cannot also win here
+        return tryCreate(lock);
+    }
+
+    /**
+     * Moves a lock renamed aside by mistake back into place. If yet another
+     * worker created the lock in the meantime the aside copy is left where it
+     * is: it is not ours to delete, and {@link #sweepAsideLocks} removes it
+     * once its owner would have been taken over anyway.
+     */
+    void giveBack(Path lock, Path aside) throws IOException {
+        // An atomic rename would replace a lock created meanwhile; linking fails instead, and keeps the mtime
+        try {
+            Files.createLink(lock, aside);
+        } catch (FileAlreadyExistsException e) {
+            // Its owner no longer finds its token in the lock and stops refreshing it
+            return;
+        }
+        Files.deleteIfExists(aside);
+    }
+
+    /** Deletes locks left aside by {@link #giveBack} that nobody has refreshed for {@link #STALE_LOCK_AGE}. */
+    static void sweepAsideLocks(Path directory) throws IOException {
+        try (DirectoryStream<Path> asides = Files.newDirectoryStream(directory, "*.lock.*.stale")) {
+            for (Path aside : asides) {
+                if (isStale(aside)) {
+                    Files.deleteIfExists(aside);
+                }
+            }
+        }
+    }
+
+    // Deletes the lock only while it is still ours; a lock that was taken over belongs to its new owner
+    private void release(Path lock) throws IOException {
+        if (owner.equals(readOwner(lock))) {
+            Files.deleteIfExists(lock);
+        }
+    }
+
+    private static boolean isStale(Path lock) {
+        try {
+            long refreshed = Files.getLastModifiedTime(lock).toMillis();
+            return System.currentTimeMillis() - refreshed >= STALE_LOCK_AGE.toMillis();
+        } catch (IOException gone) {
+            return false;
+        }
+    }
+
+    // Owner token in a lock file, or null if it is gone
+    private static String readOwner(Path lock) {
+        try {
+            return new String(Files.readAllBytes(lock), StandardCharsets.UTF_8);
+        } catch (IOException gone) {
+            return null;
+        }
+    }
+
+    private boolean tryCreate(Path lock) throws IOException {
+        try {
+            Files.write(lock, owner.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.WRITE);
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            return false;
+        }
+    }
+
+    private void refresh(Path lock) {
+        if (!owner.equals(readOwner(lock))) {
+            // Taken over after we stalled; keeping someone else's lock fresh would hide a dead worker
+            return;
+        }
+        try {
+            Files.setLastModifiedTime(lock, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // The next refresh tries again; only a long outage lets another worker take over
+        }
+    }
+}
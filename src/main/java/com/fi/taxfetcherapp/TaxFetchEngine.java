@@ -0,0 +1,664 @@
+package com.fi.taxfetcherapp;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+/**
+ * The fetch/parse/write pipeline, independent of any UI: reads the input
+ * workbook, fetches and extracts each account's detail page, and writes the
+ * output file. The Swing frame and the command-line entry point are both
+ * clients of this class. Long-lived pieces (worker pool, HTTP clients, caches)
+ * are shared across runs.
+ *
+ * <p>Each row is routed to a {@link CountyAdapter} by its JDX column, falling
+ * back to the run's county. Every county has its own HTTP client (and so its
+ * own connection pool), rate limiter and in-flight limit, so a mixed input
+ * file fetches from all county hosts in parallel without one host's
+ * politeness limits holding up another. Each county's in-flight requests are
+ * capped by an {@link AdaptiveConcurrencyLimiter} that starts at the run's
+ * concurrency and adapts within its floor and ceiling to the host's latency
+ * and error rate.
+ *
+ * <p>A run is a staged {@link FetchEngine} pipeline: the streaming reader
+ * feeds I/O-bound fetch workers, fetched pages are parsed and extracted on a
+ * CPU-sized pool, and this thread writes results in input order.
+ *
+ * <p>Each account is fetched once per run: later rows with the same
+ * normalized account number (duplicates in merged lists, {@code ACCT}-prefixed
+ * and plain forms) skip both stages and are written from the first row's
+ * result, failed or not, so the output keeps one row per input row.
+ * Identical requests from concurrent runs on this engine share one in-flight
+ * request.
+ */
+final class TaxFetchEngine implements AutoCloseable {
+    private static final long CACHE_MAX_BYTES = 1024L * 1024 * 1024;
+    private static final int ADDRESS_CACHE_SIZE = 50_000;
+
+    private final ExecutorService executorService;
+    private final AddressParser addressParser = new AddressParser(ADDRESS_CACHE_SIZE);
+    private final PipelineMetrics metrics = new PipelineMetrics();
+    private final Map<String, CountyClient> countyClients = new LinkedHashMap<>();
+    private final Map<String, CompletableFuture<HttpFetcher.FetchResponse>> inFlightRequests =
+            new ConcurrentHashMap<>();
+    private ResponseCache responseCache;
+    private Path responseCacheDirectory;
+
+    TaxFetchEngine() {
+        // In-flight work is bounded per run by FetchEngine and the per-county concurrency limiters
+        executorService = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "tax-fetch-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (CountyAdapter adapter : CountyAdapters.all()) {
+            HttpFetcher httpFetcher = new HttpFetcher(Duration.ofSeconds(10), Duration.ofSeconds(15), metrics);
+            countyClients.put(adapter.getName().toLowerCase(Locale.ROOT), new CountyClient(adapter,
+                    new RetryingFetcher(httpFetcher, metrics), adapter.createExtractionPlan(addressParser)));
+        }
+        // Bringing up the platform MBean server takes a few hundred ms; let it overlap reading the input
+        executorService.execute(metrics::registerMBean);
+    }
+
+    PipelineMetrics getMetrics() {
+        return metrics;
+    }
+
+    RunSummary process(File inputFile, RunOptions options, ProgressListener listener) throws Exception {
+        CountyAdapter defaultCounty = CountyAdapters.find(options.getCounty());
+        if (defaultCounty == null) {
+            throw new IllegalArgumentException("Unsupported county: " + options.getCounty()
+                    + " (available: " + String.join(", ", CountyAdapters.names()) + ")");
+        }
+        listener.log("Starting processing of: " + inputFile.getName());
+        long startNanos = System.nanoTime();
+
+        // Create output directory
+        Path outputDirectory = options.getOutputDirectory();
+        Files.createDirectories(outputDirectory);
+        ResponseCache cache = openResponseCache(outputDirectory.resolve("cache"));
+        long cacheHitsBefore = cache.getHits();
+        if (options.isOffline()) {
+            listener.log("Offline mode: extracting from " + cache.size() + " cached pages only");
+        }
+        if (options.getBaseUrl() != null) {
+            listener.log("Fetching from " + options.getBaseUrl() + " instead of the county sites; "
+                    + "response cache bypassed");
+        }
+        if (!options.isOffline()) {
+            // Building an HTTP client sets up TLS; have the default county's ready by the time rows are read
+            CountyClient defaultClient = countyClients.get(defaultCounty.getName().toLowerCase(Locale.ROOT));
+            executorService.execute(defaultClient.fetcher::prepare);
+        }
+
+        // Process records concurrently; results come back in input order
+        AtomicInteger processedCount = new AtomicInteger();
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        String extension = RecordSinks.extension(options.getOutputFormat());
+        Path outputFile = outputDirectory.resolve(defaultCounty.getName() + "_Tax_Details_" + timestamp + extension);
+        Path changesFile = options.isIncremental()
+                ? outputDirectory.resolve(defaultCounty.getName() + "_Tax_Changes_" + timestamp + extension) : null;
+
+        // What each account looked like last time; drives incremental skips, conditional GETs and the delta
+        AccountStateStore stateStore = AccountStateStore.open(outputDirectory.resolve("state"));
+        if (options.getPreviousOutput() != null) {
+            int seeded = stateStore.seedFromWorkbook(options.getPreviousOutput(), record -> {
+                CountyAdapter adapter = CountyAdapters.find(record.get(RecordSchema.JDX));
+                return stateKey(adapter != null ? adapter : defaultCounty, record.get(RecordSchema.ACCOUNT_NUMBER));
+            });
+            listener.log("Seeded " + seeded + " accounts from " + options.getPreviousOutput().getName());
+        }
+        if (options.isIncremental()) {
+            listener.log("Incremental mode: " + stateStore.size() + " known accounts, reusing results fetched "
+                    + "within the last " + options.getFreshness().toHours() + " hours");
+        }
+        IncrementalCounts incremental = new IncrementalCounts();
+        long coalescedBefore = metrics.getCoalescedFetches();
+
+        // One lane per county host: its own rate limit and adaptive in-flight limit
+        Map<String, CountyLane> lanes = new HashMap<>();
+        for (Map.Entry<String, CountyClient> client : countyClients.entrySet()) {
+            lanes.put(client.getKey(), new CountyLane(client.getValue(), options));
+        }
+        Set<String> unknownCounties = ConcurrentHashMap.newKeySet();
+        // Accounts already seen on the reading thread, and what their first row produced (writer thread)
+        Set<String> seenAccounts = new HashSet<>();
+        Map<String, SharedResult> firstResults = new HashMap<>();
+        AtomicInteger duplicateRows = new AtomicInteger();
+        // Enough fetch stages for every lane at its ceiling; the limiters decide how many are on the wire
+        int fetchStages = 0;
+        int laneCeiling = 0;
+        for (CountyLane lane : lanes.values()) {
+            fetchStages += lane.ceiling;
+            laneCeiling = Math.max(laneCeiling, lane.ceiling);
+        }
+        FetchEngine fetchEngine = new FetchEngine(executorService, fetchStages, options.getParseThreads());
+        listener.log("Fetching with " + Math.min(options.getConcurrency(), laneCeiling) +
+                " concurrent requests (adapting between " + options.getMinConcurrency() +
+                " and " + laneCeiling + ") at up to " +
+                options.getRequestsPerSecond() + " requests/sec per county host, parsing on " +
+                options.getParseThreads() + " threads");
+
+        // Accounts that succeeded in an interrupted earlier run are rebuilt from the journal
+        RunJournal journal = RunJournal.open(outputDirectory.resolve("journal"), inputFile);
+        if (journal.getResumableCount() > 0) {
+            listener.log("Resuming from journal " + journal.getJournalFile() + ": " +
+                    journal.getResumableCount() + " accounts already fetched");
+        }
+
+        // Rows are streamed from the sheet, so fetching starts before the file is fully read
+        ExcelRecordReader records = new ExcelRecordReader(inputFile);
+        metrics.startRun(fetchEngine::getPendingCount, fetchEngine::getCpuQueueDepth,
+                () -> concurrencyLimit(lanes.values(), options));
+        MetricsReporter reporter = new MetricsReporter(metrics, outputDirectory.resolve("metrics"),
+                options.getMetricsInterval(), listener::log);
+        try (reporter; journal; records;
+             RecordSink writer = RecordSinks.open(options.getOutputFormat(), outputFile, options.getRowWindow(),
+                     LoanCalculator.forOptions(options));
+             RecordSink changesWriter = changesFile == null ? null
+                     : RecordSinks.open(options.getOutputFormat(), changesFile, options.getRowWindow(),
+                             LoanCalculator.forOptions(options))) {
+            // Rows are keyed here, in input order, so the first row for an account is the one that fetches it
+            Iterable<PageFetch> pages = () -> new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return records.hasNext();
+                }
+
+                @Override
+                public PageFetch next() {
+                    TaxRecord record = records.next();
+                    String taxId = record.get("TAXID");
+                    if (taxId.trim().isEmpty()) {
+                        return null;
+                    }
+                    CountyLane lane = laneFor(record.get(RecordSchema.JDX), lanes, defaultCounty, unknownCounties,
+                            listener);
+                    String accountNumber = lane.client.adapter.normalizeAccountNumber(taxId);
+                    if (accountNumber == null) {
+                        return null;
+                    }
+                    PageFetch page = new PageFetch(record, accountNumber, lane);
+                    page.duplicate = !seenAccounts.add(page.journalKey);
+                    return page;
+                }
+            };
+
+            // Fetch stage (I/O pool) -> parse/extract stage (CPU pool) -> ordered writer (this thread)
+            fetchEngine.run(pages, (page, permit) -> {
+                if (page == null || page.duplicate) {
+                    return page;
+                }
+                TaxRecord record = page.original;
+                CountyLane lane = page.lane;
+                page.previous = stateStore.get(page.journalKey);
+                TaxRecord resumedRecord = journal.restore(page.journalKey, record);
+                if (resumedRecord != null) {
+                    page.result = resumedRecord;
+                    return page;
+                }
+                if (options.isIncremental() && page.previous != null && page.previous.isSuccess()
+                        && System.currentTimeMillis() - page.previous.getFetchedAt()
+                        < options.getFreshness().toMillis()) {
+                    // Fetched recently enough: reuse the stored values without a request
+                    page.result = record.copy();
+                    page.previous.applyTo(page.result);
+                    page.reused = true;
+                    return page;
+                }
+
+                fetchPage(page, permit, cache, options, listener);
+                return page;
+            }, page -> {
+                if (page == null || page.duplicate || page.result != null) {
+                    return page;
+                }
+                page.result = extractDetails(page, listener);
+                try {
+                    journal.append(page.journalKey, page.original, page.result);
+                } catch (IOException e) {
+                    listener.log("Failed to journal account " + page.accountNumber + ": " + e.getMessage());
+                }
+                return page;
+            }, page -> {
+                if (page == null) {
+                    return;
+                }
+                SharedResult first = page.duplicate ? firstResults.get(page.journalKey) : null;
+                TaxRecord updatedRecord;
+                if (first != null) {
+                    // The account's first row has already been handled; reuse its outcome, errors included
+                    updatedRecord = page.original.copy();
+                    first.state.applyTo(updatedRecord);
+                    duplicateRows.incrementAndGet();
+                    metrics.fetchCoalesced();
+                } else {
+                    updatedRecord = page.result;
+                    // Shared before writing, so duplicates get a row even if this one fails to write
+                    first = new SharedResult(AccountStateStore.AccountState.of(updatedRecord, 0, null, null));
+                    firstResults.put(page.journalKey, first);
+                }
+                String accountNumber = updatedRecord.get(RecordSchema.ACCOUNT_NUMBER);
+                try {
+                    long writeStart = System.nanoTime();
+                    writer.write(updatedRecord);
+                    boolean changed;
+                    if (page.duplicate) {
+                        changed = first.changed;
+                    } else {
+                        changed = updateState(page, stateStore, incremental);
+                        first.changed = changed;
+                    }
+                    if (changed && changesWriter != null) {
+                        changesWriter.write(updatedRecord);
+                    }
+                    metrics.record(PipelineMetrics.Stage.WRITE, System.nanoTime() - writeStart);
+                    metrics.recordProcessed();
+                    int processed = processedCount.incrementAndGet();
+                    String total = records.getRowsRead() + (records.isExhausted() ? "" : "+");
+                    listener.log("Processed record " + processed + "/" + total +
+                            " - Account: " + accountNumber);
+                    listener.progress(processed, records.getRowsRead(), records.isExhausted(),
+                            concurrencyLimit(lanes.values(), options));
+                } catch (Exception e) {
+                    listener.log("Error processing account " + accountNumber + ": " + e.getMessage());
+                }
+            });
+
+            // Save output file; the journal is no longer needed once the output exists
+            writer.finish();
+            if (changesWriter != null) {
+                changesWriter.finish();
+            }
+            stateStore.save();
+            journal.complete();
+        }
+        if (options.isIncremental()) {
+            listener.log("Incremental: " + incremental.reused + " reused without a request, "
+                    + incremental.notModified + " not modified, " + incremental.changed
+                    + " new or changed (written to " + changesFile.getFileName() + ")");
+        }
+
+        RunSummary summary = new RunSummary(outputFile, changesFile, processedCount.get(), records.getRowsRead());
+        listener.log("Read " + summary.getTotalRecords() + " records from Excel file");
+        long sharedRequests = metrics.getCoalescedFetches() - coalescedBefore - duplicateRows.get();
+        listener.log("Duplicate accounts: " + duplicateRows.get() + " rows reused an earlier row's result, "
+                + sharedRequests + " requests shared with a concurrent run (" + (duplicateRows.get() + sharedRequests)
+                + " fetches saved)");
+        listener.log("Response cache hits this run: " + (cache.getHits() - cacheHitsBefore));
+        listener.log("Address cache: " + addressParser.getHits() + " hits, " +
+                addressParser.getMisses() + " misses");
+        listener.log("Metrics snapshot: " + reporter.getDirectory().resolve("metrics.json"));
+        listener.log("Processing completed! Output file saved: " + outputFile);
+        listener.log("Total records processed: " + summary.getProcessed() + "/" + summary.getTotalRecords());
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        listener.log(String.format("Elapsed %.1f s (%.1f records/sec)", seconds, summary.getProcessed() / seconds));
+        return summary;
+    }
+
+    @Override
+    public void close() {
+        metrics.unregisterMBean();
+        executorService.shutdownNow();
+    }
+
+    private synchronized ResponseCache openResponseCache(Path directory) throws IOException {
+        if (responseCache == null || !directory.equals(responseCacheDirectory)) {
+            responseCache = ResponseCache.open(directory, CACHE_MAX_BYTES);
+            responseCacheDirectory = directory;
+        }
+        return responseCache;
+    }
+
+    private static String stateKey(CountyAdapter adapter, String accountNumber) {
+        return adapter.getName() + "/" + accountNumber;
+    }
+
+    /**
+     * Records a finished account in the state store (on the writer thread) and
+     * reports whether it belongs in the changes file: new accounts, changed
+     * values and changes of status do; reused and unchanged results do not.
+     */
+    private static boolean updateState(PageFetch page, AccountStateStore stateStore, IncrementalCounts counts) {
+        if (page.reused) {
+            counts.reused++;
+            return false;
+        }
+        TaxRecord result = page.result;
+        AccountStateStore.AccountState previous = page.previous;
+        if (!"SUCCESS".equals(result.get(RecordSchema.FETCH_STATUS))) {
+            // Keep the last good state so the next run tries again with its validators
+            boolean changed = previous == null || previous.isSuccess();
+            if (changed) {
+                counts.changed++;
+            }
+            return changed;
+        }
+        boolean changed = previous == null || !previous.sameFieldsAs(result);
+        if (page.notModified) {
+            counts.notModified++;
+        } else if (changed) {
+            counts.changed++;
+        }
+        String etag = page.etag;
+        String lastModified = page.lastModified;
+        if (page.notModified) {
+            // A 304 may omit the validators; keep the ones that just worked
+            etag = etag != null ? etag : previous.getETag();
+            lastModified = lastModified != null ? lastModified : previous.getLastModified();
+        }
+        stateStore.put(page.journalKey, AccountStateStore.AccountState.of(result, System.currentTimeMillis(),
+                etag, lastModified));
+        return changed;
+    }
+
+    // Current limits of the lanes that have made requests, or the starting limit before any have
+    private static int concurrencyLimit(Collection<CountyLane> lanes, RunOptions options) {
+        int limit = 0;
+        for (CountyLane lane : lanes) {
+            if (lane.used) {
+                limit += lane.limiter.getLimit();
+            }
+        }
+        return limit > 0 ? limit : options.getConcurrency();
+    }
+
+    // Rows whose JDX names no installed county keep the old behaviour of using the run's county
+    private static CountyLane laneFor(String jdx, Map<String, CountyLane> lanes, CountyAdapter defaultCounty,
+                                      Set<String> unknownCounties, ProgressListener listener) {
+        CountyAdapter adapter = CountyAdapters.find(jdx);
+        if (adapter == null) {
+            if (!jdx.trim().isEmpty() && unknownCounties.add(jdx.trim())) {
+                listener.log("No adapter for JDX '" + jdx.trim() + "', using " + defaultCounty.getName());
+            }
+            adapter = defaultCounty;
+        }
+        return lanes.get(adapter.getName().toLowerCase(Locale.ROOT));
+    }
+
+    // I/O half of an account: cache lookup or network fetch. Failures are recorded for the parse stage to report.
+    private void fetchPage(PageFetch page, FetchEngine.Permit permit, ResponseCache cache, RunOptions options,
+                           ProgressListener listener) {
+        CountyAdapter adapter = page.lane.client.adapter;
+        String accountNumber = page.accountNumber;
+        page.fetchDate = LocalDateTime.now().toString();
+        try {
+            page.url = rebase(adapter.buildDetailUrl(accountNumber), options.getBaseUrl());
+            // Serve from the local cache when a fresh copy exists; stand-in hosts are never cached
+            Duration maxAge = options.isOffline() ? Duration.ofMillis(Long.MAX_VALUE) : options.getCacheTtl();
+            boolean cacheable = options.getBaseUrl() == null;
+            byte[] html = cacheable ? cache.get(adapter.getName(), accountNumber, maxAge) : null;
+            if (cacheable) {
+                if (html != null) {
+                    metrics.cacheHit();
+                } else {
+                    metrics.cacheMiss();
+                }
+            }
+            if (html == null) {
+                if (options.isOffline()) {
+                    throw new IOException("Page not in response cache (offline mode)");
+                }
+                listener.log("Fetching details for: " + page.url);
+
+                // Incremental runs revalidate what they already have instead of downloading it again
+                AccountStateStore.AccountState previous =
+                        options.isIncremental() && page.previous != null && page.previous.isSuccess()
+                                ? page.previous : null;
+                HttpFetcher.FetchResponse response = fetchShared(page, permit,
+                        previous != null ? previous.getETag() : null,
+                        previous != null ? previous.getLastModified() : null, listener);
+                page.etag = response.getETag();
+                page.lastModified = response.getLastModified();
+                if (response.isNotModified() && previous != null) {
+                    page.notModified = true;
+                    return;
+                }
+                html = response.getBody();
+                if (cacheable) {
+                    cache.put(adapter.getName(), accountNumber, html);
+                }
+                if (options.getFixtureRecordDirectory() != null) {
+                    recordFixture(options.getFixtureRecordDirectory(), adapter, accountNumber, html);
+                }
+            }
+            page.html = html;
+        } catch (Exception e) {
+            page.failure = e;
+        }
+    }
+
+    /**
+     * Makes the request on the lane's shared keep-alive client (classified
+     * retries, per-host circuit breaker), unless an identical request from
+     * another run on this engine is already in flight, in which case its
+     * response or failure is shared.
+     */
+    private HttpFetcher.FetchResponse fetchShared(PageFetch page, FetchEngine.Permit permit, String etag,
+                                                  String lastModified, ProgressListener listener)
+            throws IOException, InterruptedException {
+        String key = page.url + '\n' + etag + '\n' + lastModified;
+        CompletableFuture<HttpFetcher.FetchResponse> request = new CompletableFuture<>();
+        CompletableFuture<HttpFetcher.FetchResponse> inFlight = inFlightRequests.putIfAbsent(key, request);
+        if (inFlight != null) {
+            metrics.fetchCoalesced();
+            try {
+                return inFlight.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IOException("Shared request failed: " + cause, cause);
+            }
+        }
+
+        metrics.fetchStarted();
+        try {
+            page.lane.used = true;
+            HttpFetcher.FetchResponse response = page.lane.client.fetcher.fetch(page.url, etag, lastModified,
+                    page.lane.rateLimiter, page.lane.limiter, permit, listener::log);
+            request.complete(response);
+            return response;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            request.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightRequests.remove(key, request);
+            metrics.fetchFinished();
+        }
+    }
+
+    // CPU half of an account: parse the fetched page and extract fields into a copy of the input row
+    private TaxRecord extractDetails(PageFetch page, ProgressListener listener) {
+        TaxRecord updatedRecord = page.original.copy();
+        updatedRecord.set(RecordSchema.ACCOUNT_NUMBER, page.accountNumber);
+        updatedRecord.set(RecordSchema.FETCH_DATE, page.fetchDate);
+
+        try {
+            if (page.failure != null) {
+                throw page.failure;
+            }
+            if (page.notModified) {
+                // The site confirmed the stored values are current
+                page.previous.applyTo(updatedRecord);
+                updatedRecord.set(RecordSchema.FETCH_DATE, page.fetchDate);
+                return updatedRecord;
+            }
+            long parseStart = System.nanoTime();
+            Document doc = Jsoup.parse(new ByteArrayInputStream(page.html), "UTF-8", page.url);
+            long extractStart = System.nanoTime();
+            metrics.record(PipelineMetrics.Stage.PARSE, extractStart - parseStart);
+
+            // Extract key information in a single pass over the page
+            page.lane.client.extractionPlan.extract(doc, updatedRecord);
+            metrics.record(PipelineMetrics.Stage.EXTRACT, System.nanoTime() - extractStart);
+
+            updatedRecord.set(RecordSchema.FETCH_STATUS, "SUCCESS");
+        } catch (Exception e) {
+            metrics.error(e);
+            listener.log("Failed to fetch details for " + page.accountNumber + ": " + e.getMessage());
+            updatedRecord.set(RecordSchema.FETCH_STATUS, "ERROR: " + e.getMessage());
+        }
+
+        return updatedRecord;
+    }
+
+    // Keeps the path and query of a county URL but sends it to baseUrl's scheme, host and port
+    static String rebase(String url, String baseUrl) {
+        if (baseUrl == null) {
+            return url;
+        }
+        URI uri = URI.create(url);
+        return baseUrl + uri.getRawPath() + (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : "");
+    }
+
+    // Layout read back by ReplayServer: <dir>/<county>/<account>.html
+    private static void recordFixture(Path directory, CountyAdapter adapter, String accountNumber, byte[] html)
+            throws IOException {
+        Path countyDirectory = directory.resolve(adapter.getName().toLowerCase(Locale.ROOT));
+        Files.createDirectories(countyDirectory);
+        Files.write(countyDirectory.resolve(accountNumber.replaceAll("[^A-Za-z0-9_-]", "_") + ".html"), html);
+    }
+
+    // One account on its way from the fetch stage to the parse stage
+    private static final class PageFetch {
+        final TaxRecord original;
+        final String accountNumber;
+        final String journalKey;
+        final CountyLane lane;
+        String fetchDate;
+        String url;
+        byte[] html;
+        Exception failure;
+        AccountStateStore.AccountState previous;
+        String etag;
+        String lastModified;
+        boolean notModified;
+        // A later row for an account already seen this run; written from the first row's result
+        boolean duplicate;
+        // Reused from the state store without a request
+        boolean reused;
+        // The finished record; set early when the journal or state store already has it
+        TaxRecord result;
+
+        PageFetch(TaxRecord original, String accountNumber, CountyLane lane) {
+            this.original = original;
+            this.accountNumber = accountNumber;
+            this.journalKey = stateKey(lane.client.adapter, accountNumber);
+            this.lane = lane;
+        }
+    }
+
+    // Long-lived per-county state: the adapter, its own pooled HTTP client and its compiled rules
+    private static final class CountyClient {
+        final CountyAdapter adapter;
+        final RetryingFetcher fetcher;
+        final ExtractionPlan extractionPlan;
+
+        CountyClient(CountyAdapter adapter, RetryingFetcher fetcher, ExtractionPlan extractionPlan) {
+            this.adapter = adapter;
+            this.fetcher = fetcher;
+            this.extractionPlan = extractionPlan;
+        }
+    }
+
+    // Per-run politeness for one county host
+    private static final class CountyLane {
+        // Round trip a lane is sized for; more requests than rate x this only wait in the token bucket
+        private static final double EXPECTED_ROUND_TRIP_SECONDS = 3.0;
+
+        final CountyClient client;
+        final HostRateLimiter rateLimiter;
+        final AdaptiveConcurrencyLimiter limiter;
+        // Most requests this lane may have in flight
+        final int ceiling;
+        volatile boolean used;
+
+        CountyLane(CountyClient client, RunOptions options) {
+            this.client = client;
+            // The adapter's ceiling protects the county's own host, not a stand-in
+            double rate = options.getBaseUrl() != null ? options.getRequestsPerSecond()
+                    : Math.min(options.getRequestsPerSecond(), client.adapter.getMaxRequestsPerSecond());
+            this.rateLimiter = new HostRateLimiter(rate, 1);
+            int budget = (int) Math.ceil(rate * EXPECTED_ROUND_TRIP_SECONDS);
+            this.ceiling = Math.max(options.getMinConcurrency(), Math.min(options.getMaxConcurrency(), budget));
+            this.limiter = new AdaptiveConcurrencyLimiter(options.getConcurrency(), options.getMinConcurrency(),
+                    ceiling);
+        }
+    }
+
+    // The first row's outcome for an account, copied onto its duplicate rows
+    private static final class SharedResult {
+        final AccountStateStore.AccountState state;
+        // Set once the first row is written; stays false if that failed
+        boolean changed;
+
+        SharedResult(AccountStateStore.AccountState state) {
+            this.state = state;
+        }
+    }
+
+    // Written only by the ordered writer thread
+    private static final class IncrementalCounts {
+        int reused;
+        int notModified;
+        int changed;
+    }
+
+    static final class RunSummary {
+        private final Path outputFile;
+        private final Path changesFile;
+        private final int processed;
+        private final int totalRecords;
+
+        RunSummary(Path outputFile, Path changesFile, int processed, int totalRecords) {
+            this.outputFile = outputFile;
+            this.changesFile = changesFile;
+            this.processed = processed;
+            this.totalRecords = totalRecords;
+        }
+
+        Path getOutputFile() {
+            return outputFile;
+        }
+
+        /** Rows that are new or changed since the last run, or null outside incremental mode. */
+        Path getChangesFile() {
+            return changesFile;
+        }
+
+        int getProcessed() {
+            return processed;
+        }
+
+        int getTotalRecords() {
+            return totalRecords;
+        }
+    }
+}
@@ -0,0 +1,417 @@
+package com.fi.taxfetcherapp;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Headless batch entry point. Runs {@link TaxFetchEngine} with settings from
+ * the command line and reports progress to stdout or a file; nothing here
+ * touches AWT or Swing, so it runs on servers without a display.
+ *
+ * <p>With {@code --shards} the run is split by {@link ShardPlan} and fetched
+ * by worker processes started here ({@code --workers}) or on other nodes
+ * sharing the output directory ({@code --work}), then merged back into one
+ * workbook ({@code --merge}, done automatically after local workers).
+ */
+public final class TaxFetcherCli {
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private static final int PROGRESS_EVERY = 100;
+    // Coordinator-only options (with a value), not passed on to worker processes
+    private static final Set<String> COORDINATOR_OPTIONS = Set.of("--input", "--output-dir", "--progress-file",
+            "--shards", "--workers", "--work", "--merge");
+
+    private TaxFetcherCli() {
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    static int run(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+
+        RunOptions options = new RunOptions();
+        File inputFile = null;
+        Path progressFile = null;
+        int shards = 0;
+        int workers = -1;
+        Path workDirectory = null;
+        Path mergeDirectory = null;
+        boolean concurrencyGiven = false;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                switch (arg) {
+                    case "--input":
+                        inputFile = new File(value(args, ++i, arg));
+                        break;
+                    case "--county":
+                        options.setCounty(value(args, ++i, arg));
+                        break;
+                    case "--concurrency":
+                        options.setConcurrency(Integer.parseInt(value(args, ++i, arg)));
+                        concurrencyGiven = true;
+                        break;
+                    case "--min-concurrency":
+                        options.setMinConcurrency(Integer.parseInt(value(args, ++i, arg)));
+                        break;
+                    case "--max-concurrency":
+                        options.setMaxConcurrency(Integer.parseInt(value(args, ++i, arg)));
+                        break;
+                    case "--parse-threads":
+                        options.setParseThreads(Integer.parseInt(value(args, ++i, arg)));
+                        break;
+                    case "--rate":
+                        options.setRequestsPerSecond(Double.parseDouble(value(args, ++i, arg)));
+                        break;
+                    case "--format":
+                        options.setOutputFormat(value(args, ++i, arg));
+                        break;
+                    case "--output-dir":
+                        options.setOutputDirectory(Paths.get(value(args, ++i, arg)));
+                        break;
+                    case "--row-window":
+                        options.setRowWindow(Integer.parseInt(value(args, ++i, arg)));
+                        break;
+                    case "--cache-ttl-hours":
+                        options.setCacheTtl(Duration.ofHours(Long.parseLong(value(args, ++i, arg))));
+                        break;
+                    case "--offline":
+                        options.setOffline(true);
+                        break;
+                    case "--incremental":
+                        options.setIncremental(true);
+                        break;
+                    case "--fresh-hours":
+                        options.setFreshness(Duration.ofHours(Long.parseLong(value(args, ++i, arg))));
+                        break;
+                    case "--previous-output":
+                        options.setPreviousOutput(new File(value(args, ++i, arg)));
+                        break;
+                    case "--base-url":
+                        options.setBaseUrl(value(args, ++i, arg));
+                        break;
+                    case "--metrics-interval":
+                        options.setMetricsInterval(Duration.ofSeconds(Long.parseLong(value(args, ++i, arg))));
+                        break;
+                    case "--loan-rate":
+                        options.setLoanRate(Double.parseDouble(value(args, ++i, arg)) / 100);
+                        break;
+                    case "--loan-term":
+                        options.setLoanTermMonths(Integer.parseInt(value(args, ++i, arg)));
+                        break;
+                    case "--loan-fees":
+                        options.setLoanFees(Double.parseDouble(value(args, ++i, arg)));
+                        break;
+                    case "--purchase-percent":
+                        options.setPurchaseRatio(Double.parseDouble(value(args, ++i, arg)) / 100);
+                        break;
+                    case "--record-fixtures":
+                        options.setFixtureRecordDirectory(Paths.get(value(args, ++i, arg)));
+                        break;
+                    case "--progress-file":
+                        progressFile = Paths.get(value(args, ++i, arg));
+                        break;
+                    case "--shards":
+                        shards = Integer.parseInt(value(args, ++i, arg));
+                        break;
+                    case "--workers":
+                        workers = Integer.parseInt(value(args, ++i, arg));
+                        break;
+                    case "--work":
+                        workDirectory = Paths.get(value(args, ++i, arg));
+                        break;
+                    case "--merge":
+                        mergeDirectory = Paths.get(value(args, ++i, arg));
+                        break;
+                    case "--help":
+                    case "-h":
+                        printUsage(System.out);
+                        return 0;
+                    default:
+                        throw new IllegalArgumentException("Unknown argument: " + arg);
+                }
+            }
+            if (workDirectory != null || mergeDirectory != null) {
+                if (workDirectory != null && mergeDirectory != null) {
+                    throw new IllegalArgumentException("--work and --merge cannot be combined");
+                }
+            } else if (inputFile == null) {
+                throw new IllegalArgumentException("--input is required");
+            } else if (!inputFile.isFile()) {
+                throw new IllegalArgumentException("Input file not found: " + inputFile);
+            }
+            if (shards < 0 || workers < -1) {
+                throw new IllegalArgumentException("--shards and --workers cannot be negative");
+            }
+            if (!concurrencyGiven && options.getMinConcurrency() <= options.getMaxConcurrency()) {
+                // Only bounds were given: start the default limit inside them
+                options.setConcurrency(Math.max(options.getMinConcurrency(),
+                        Math.min(options.getMaxConcurrency(), options.getConcurrency())));
+            }
+            options.validate();
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            printUsage(System.err);
+            return 2;
+        }
+
+        if (workDirectory != null) {
+            return runWorker(workDirectory, options, progressFile);
+        }
+        if (mergeDirectory != null) {
+            return runMerge(mergeDirectory, options);
+        }
+        if (shards > 0) {
+            return runSharded(args, inputFile, shards, workers < 0 ? shards : workers, options);
+        }
+        return runSingle(inputFile, options, progressFile);
+    }
+
+    private static int runSingle(File inputFile, RunOptions options, Path progressFile) {
+        try (PrintStream out = openProgressStream(progressFile);
+             TaxFetchEngine engine = new TaxFetchEngine()) {
+            ConsoleProgress progress = new ConsoleProgress(out);
+            progress.log("Started in " + ManagementFactory.getRuntimeMXBean().getUptime() + " ms");
+            TaxFetchEngine.RunSummary summary = engine.process(inputFile, options, progress);
+            System.out.println(summary.getOutputFile());
+            if (summary.getChangesFile() != null) {
+                System.out.println(summary.getChangesFile());
+            }
+            return 0;
+        } catch (Exception e) {
+            System.err.println("Error processing file: " + e.getMessage());
+            e.printStackTrace();
+            return 1;
+        }
+    }
+
+    // Works through the shards of a plan, here or on any node that shares its directory
+    private static int runWorker(Path shardDirectory, RunOptions options, Path progressFile) {
+        try (PrintStream out = openProgressStream(progressFile);
+             TaxFetchEngine engine = new TaxFetchEngine()) {
+            ShardPlan plan = ShardPlan.load(shardDirectory);
+            options.setCounty(plan.getCounty().getName());
+            ConsoleProgress progress = new ConsoleProgress(out);
+            progress.log("Started in " + ManagementFactory.getRuntimeMXBean().getUptime() + " ms");
+            int failed = new ShardWorker(plan, engine).runAll(options, progress);
+            System.out.println(plan.countDone() + "/" + plan.getShardCount() + " shards done"
+                    + (failed > 0 ? ", " + failed + " failed here" : ""));
+            return failed == 0 ? 0 : 1;
+        } catch (Exception e) {
+            System.err.println("Error processing shards: " + e.getMessage());
+            e.printStackTrace();
+            return 1;
+        }
+    }
+
+    private static int runMerge(Path shardDirectory, RunOptions options) {
+        try {
+            ShardPlan plan = ShardPlan.load(shardDirectory);
+            System.out.println(plan.merge(options.getOutputDirectory(), options.getOutputFormat(),
+                    options.getRowWindow(), LoanCalculator.forOptions(options)));
+            return 0;
+        } catch (Exception e) {
+            System.err.println("Error merging shards: " + e.getMessage());
+            e.printStackTrace();
+            return 1;
+        }
+    }
+
+    /**
+     * Splits the input (or reuses an earlier split of it), runs {@code workers}
+     * local worker processes over the shards and merges their outputs. Rerunning
+     * the same command after a failure only redoes unfinished shards.
+     */
+    private static int runSharded(String[] args, File inputFile, int shards, int workers, RunOptions options) {
+        try {
+            CountyAdapter county = CountyAdapters.find(options.getCounty());
+            if (county == null) {
+                throw new IllegalArgumentException("Unsupported county: " + options.getCounty());
+            }
+            Path shardDirectory = options.getOutputDirectory().resolve("shards");
+            ShardPlan plan = ShardPlan.create(shardDirectory, inputFile, shards, county);
+            System.out.println("Shard plan " + shardDirectory + ": " + plan.countDone() + "/" + shards
+                    + " shards already done");
+            if (workers == 0) {
+                System.out.println("Start workers with --work " + shardDirectory + ", then run --merge "
+                        + shardDirectory);
+                return 0;
+            }
+
+            List<String> command = new ArrayList<>();
+            command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+            command.addAll(workerJvmArguments(ManagementFactory.getRuntimeMXBean().getInputArguments()));
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(TaxFetcherCli.class.getName());
+            command.add("--work");
+            command.add(shardDirectory.toString());
+            command.addAll(workerArguments(args));
+            List<Process> processes = new ArrayList<>();
+            for (int worker = 0; worker < Math.min(workers, shards); worker++) {
+                Path log = shardDirectory.resolve("worker-" + worker + ".log");
+                processes.add(new ProcessBuilder(command)
+                        .redirectErrorStream(true)
+                        .redirectOutput(ProcessBuilder.Redirect.appendTo(log.toFile()))
+                        .start());
+            }
+            System.out.println("Started " + processes.size() + " worker processes; logs in " + shardDirectory);
+            for (Process process : processes) {
+                process.waitFor();
+            }
+
+            int unfinished = shards - plan.countDone();
+            if (unfinished > 0) {
+                System.err.println(unfinished + " of " + shards + " shards did not finish; see the worker logs"
+                        + " and rerun the same command to resume them");
+                return 1;
+            }
+            System.out.println(plan.merge(options.getOutputDirectory(), options.getOutputFormat(),
+                    options.getRowWindow(), LoanCalculator.forOptions(options)));
+            return 0;
+        } catch (Exception e) {
+            System.err.println("Error processing shards: " + e.getMessage());
+            e.printStackTrace();
+            return 1;
+        }
+    }
+
+    /**
+     * The coordinator's JVM flags that workers should share: heap and stack
+     * sizes and system properties. Anything else (debug agents, JMX ports, CDS
+     * dump flags) would clash or misbehave when started once per worker.
+     */
+    static List<String> workerJvmArguments(List<String> jvmArguments) {
+        List<String> passed = new ArrayList<>();
+        for (String argument : jvmArguments) {
+            boolean sized = argument.startsWith("-Xmx") || argument.startsWith("-Xms") || argument.startsWith("-Xss");
+            boolean property = argument.startsWith("-D") && !argument.startsWith("-Dcom.sun.management.");
+            if (sized || property) {
+                passed.add(argument);
+            }
+        }
+        return passed;
+    }
+
+    // The run settings a worker needs: everything except the coordinator's own options
+    static List<String> workerArguments(String[] args) {
+        List<String> passed = new ArrayList<>(Arrays.asList(args));
+        for (int i = 0; i < passed.size(); i++) {
+            if (COORDINATOR_OPTIONS.contains(passed.get(i))) {
+                passed.subList(i, Math.min(i + 2, passed.size())).clear();
+                i--;
+            }
+        }
+        return passed;
+    }
+
+    private static String value(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + option);
+        }
+        return args[index];
+    }
+
+    private static PrintStream openProgressStream(Path progressFile) throws IOException {
+        if (progressFile == null) {
+            // Don't let try-with-resources close stdout
+            return new PrintStream(System.out, true) {
+                @Override
+                public void close() {
+                    flush();
+                }
+            };
+        }
+        return new PrintStream(Files.newOutputStream(progressFile,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND), true, "UTF-8");
+    }
+
+    private static void printUsage(PrintStream out) {
+        out.println("Usage: java -jar TaxFetcherApp.jar --input <file.xlsx> [options]");
+        out.println("  --county <name>          County for rows without a JDX value: "
+                + String.join(", ", CountyAdapters.names()) + " (default Bexar)");
+        out.println("  --concurrency <n>        Starting limit on requests in flight per county host, 1-"
+                + RunOptions.MAX_CONCURRENCY + " (default " + RunOptions.DEFAULT_CONCURRENCY
+                + ", kept within the bounds below)");
+        out.println("  --min-concurrency <n>    Floor the limit backs off to under throttling or slow responses"
+                + " (default 1)");
+        out.println("  --max-concurrency <n>    Ceiling the limit grows to while the host keeps up (default "
+                + RunOptions.MAX_CONCURRENCY + "); equal bounds fix the limit");
+        out.println("  --parse-threads <n>      Threads parsing fetched pages (default: CPU count)");
+        out.println("  --rate <req/sec>         Requests per second per host (default "
+                + RunOptions.DEFAULT_REQUESTS_PER_SECOND + ")");
+        out.println("  --format <fmt>           Output format: xlsx, csv or ndjson (gzip-compressed JSON lines;"
+                + " default xlsx)");
+        out.println("  --output-dir <dir>       Output directory (default output)");
+        out.println("  --row-window <n>         Output rows kept in memory, 0 = all (default "
+                + RunOptions.DEFAULT_ROW_WINDOW + ")");
+        out.println("  --cache-ttl-hours <h>    Reuse cached pages younger than this (default "
+                + RunOptions.DEFAULT_CACHE_TTL_HOURS + ")");
+        out.println("  --offline                Extract from cached pages only");
+        out.println("  --incremental            Reuse fresh results, revalidate the rest with conditional"
+                + " requests and also write a file of new or changed rows");
+        out.println("  --fresh-hours <n>        Age below which --incremental reuses a result without a request"
+                + " (default " + RunOptions.DEFAULT_FRESHNESS_HOURS + ")");
+        out.println("  --previous-output <file> Seed the account state from an earlier output workbook");
+        out.println("  --base-url <url>         Fetch from this host instead of the county sites, e.g. a"
+                + " ReplayServer; the response cache is bypassed");
+        out.println("  --loan-rate <percent>    Annual tax-loan rate for the derived payment columns (default "
+                + RunOptions.DEFAULT_LOAN_RATE * 100 + ")");
+        out.println("  --loan-term <months>     Loan term for pmt and APR (default "
+                + RunOptions.DEFAULT_LOAN_TERM_MONTHS + "; pmt 24 mts always uses 24)");
+        out.println("  --loan-fees <dollars>    Closing fees financed with the loan (default "
+                + RunOptions.DEFAULT_LOAN_FEES + ")");
+        out.println("  --purchase-percent <p>   Share of total value for ESTIMATED MAX PURCHASE PRICE (default "
+                + RunOptions.DEFAULT_PURCHASE_RATIO * 100 + ")");
+        out.println("  --record-fixtures <dir>  Also save fetched pages as ReplayServer fixtures");
+        out.println("  --metrics-interval <s>   Seconds between metrics snapshots in <output-dir>/metrics, 0 for"
+                + " the final one only (default " + RunOptions.DEFAULT_METRICS_INTERVAL_SECONDS + ")");
+        out.println("  --progress-file <file>   Append progress to a file instead of stdout");
+        out.println("  --shards <n>             Split the input into n shards under <output-dir>/shards, fetch them"
+                + " in worker processes and merge the results; rerun to resume unfinished shards");
+        out.println("  --workers <n>            Local worker processes for --shards (default: one per shard);"
+                + " 0 only splits, for workers on other nodes");
+        out.println("  --work <shard-dir>       Work through the unfinished shards in a shared shard directory");
+        out.println("  --merge <shard-dir>      Merge finished shards into one workbook in --output-dir");
+        out.println("Without arguments the Swing UI is started.");
+    }
+
+    private static final class ConsoleProgress implements ProgressListener {
+        private final PrintStream out;
+
+        ConsoleProgress(PrintStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void log(String message) {
+            String line = "[" + LocalTime.now().format(TIME_FORMAT) + "] " + message;
+            synchronized (out) {
+                out.println(line);
+            }
+        }
+
+        @Override
+        public void progress(int processed, int rowsRead, boolean allRowsRead, int concurrencyLimit) {
+            if (processed % PROGRESS_EVERY == 0) {
+                int percent = (int) ((double) processed / Math.max(1, rowsRead) * 100);
+                log("Progress: " + processed + "/" + rowsRead + (allRowsRead ? "" : "+") + " (" + percent + "%),"
+                        + " concurrency limit " + concurrencyLimit);
+            }
+        }
+    }
+}
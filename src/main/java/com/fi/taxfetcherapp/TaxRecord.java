@@ -0,0 +1,65 @@
+package com.fi.taxfetcherapp;
+
+import java.util.Arrays;
+
+/**
+ * One account row, stored as a flat {@code String[]} laid out by a shared
+ * {@link RecordSchema}. Columns are read and written by integer index; the
+ * name-based accessors are for the few places that only know a column name.
+ * Unset columns read as the empty string.
+ */
+final class TaxRecord {
+    private final RecordSchema schema;
+    private final String[] values;
+
+    TaxRecord(RecordSchema schema) {
+        this(schema, new String[schema.size()]);
+    }
+
+    private TaxRecord(RecordSchema schema, String[] values) {
+        this.schema = schema;
+        this.values = values;
+    }
+
+    RecordSchema getSchema() {
+        return schema;
+    }
+
+    String get(int column) {
+        String value = values[column];
+        return value != null ? value : "";
+    }
+
+    /** Value of the named column, or the empty string if it is not in the schema. */
+    String get(String name) {
+        int column = schema.indexOf(name);
+        return column >= 0 ? get(column) : "";
+    }
+
+    void set(int column, String value) {
+        values[column] = value;
+    }
+
+    /**
+     * Sets the named column.
+     *
+     * @return false if the schema has no such column
+     */
+    boolean set(String name, String value) {
+        int column = schema.indexOf(name);
+        if (column < 0) {
+            return false;
+        }
+        values[column] = value;
+        return true;
+    }
+
+    /** True if the column holds a different value than the same column of {@code other}. */
+    boolean differsAt(int column, TaxRecord other) {
+        return !get(column).equals(other.get(column));
+    }
+
+    TaxRecord copy() {
+        return new TaxRecord(schema, Arrays.copyOf(values, values.length));
+    }
+}
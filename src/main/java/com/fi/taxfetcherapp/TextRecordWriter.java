@@ -0,0 +1,113 @@
+package com.fi.taxfetcherapp;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Base of the line-oriented {@link RecordSink}s. Each record is formatted
+ * into one line and appended to a buffered, optionally gzip-compressed
+ * stream over a {@link FileChannel} as soon as it is written, so nothing
+ * but the buffers is held on the heap. The derived loan columns are
+ * computed per record and written as plain decimal numbers: dollar amounts
+ * with two places, ratios with six.
+ */
+abstract class TextRecordWriter implements RecordSink {
+    static final String[] HEADERS = RecordSchema.outputColumns();
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path outputFile;
+    private final LoanCalculator calculator;
+    private final StringBuilder line = new StringBuilder(1024);
+    private final Writer out;
+    private boolean finished;
+
+    TextRecordWriter(Path outputFile, boolean compress, LoanCalculator calculator) throws IOException {
+        this.outputFile = outputFile;
+        this.calculator = calculator;
+        OutputStream stream = Channels.newOutputStream(FileChannel.open(outputFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+        if (compress) {
+            stream = new GZIPOutputStream(stream, BUFFER_SIZE);
+        }
+        this.out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    @Override
+    public Path getOutputFile() {
+        return outputFile;
+    }
+
+    @Override
+    public void write(TaxRecord record) throws IOException {
+        calculator.compute(record);
+        line.setLength(0);
+        appendRecord(line, record);
+        out.append(line);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        out.close();
+        finished = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!finished) {
+            // An unfinished file would look complete to a downstream loader
+            out.close();
+            Files.deleteIfExists(outputFile);
+        }
+    }
+
+    /** Writes the format's header line; a subclass with one calls this once before the first record. */
+    final void writeHeader() throws IOException {
+        line.setLength(0);
+        appendHeader(line);
+        out.append(line);
+    }
+
+    void appendHeader(StringBuilder line) {
+    }
+
+    /** Appends {@code record} as one line including its line terminator. */
+    abstract void appendRecord(StringBuilder line, TaxRecord record);
+
+    /**
+     * Derived value of output column {@code column} for the record being
+     * written, or NaN when the column is not derived or not computable.
+     */
+    final double derived(int column) {
+        int slot = LoanCalculator.slotOf(column);
+        if (slot < 0) {
+            return Double.NaN;
+        }
+        double value = calculator.value(slot);
+        return Double.isInfinite(value) ? Double.NaN : value;
+    }
+
+    /** Appends a derived value of {@code column} as a fixed-point decimal, never in exponent notation. */
+    static void appendDecimal(StringBuilder line, int column, double value) {
+        long scale = LoanCalculator.RATIO[LoanCalculator.slotOf(column)] ? 1_000_000 : 100;
+        long units = Math.round(Math.abs(value) * scale);
+        if (value < 0 && units != 0) {
+            line.append('-');
+        }
+        line.append(units / scale).append('.');
+        long fraction = units % scale;
+        for (long place = scale / 10; place > 1 && fraction < place; place /= 10) {
+            line.append('0');
+        }
+        line.append(fraction);
+    }
+}
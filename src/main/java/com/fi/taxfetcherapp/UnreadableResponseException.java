@@ -0,0 +1,16 @@
+package com.fi.taxfetcherapp;
+
+import java.io.IOException;
+
+/**
+ * A response that arrived whole but cannot be read, such as a body in an
+ * unsupported {@code Content-Encoding}. The site would send the same bytes
+ * again, so the retry layer fails it at once instead of backing off.
+ */
+final class UnreadableResponseException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    UnreadableResponseException(String message) {
+        super(message);
+    }
+}
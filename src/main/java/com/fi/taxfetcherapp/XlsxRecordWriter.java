@@ -0,0 +1,137 @@
+package com.fi.taxfetcherapp;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+/**
+ * Writes fetched records to an .xlsx output file. With a positive row-access
+ * window the workbook is an {@link SXSSFWorkbook}: only the last
+ * {@code rowAccessWindow} rows stay on the heap and older rows are flushed to
+ * (optionally gzip-compressed) temp files as they complete, so memory stays
+ * flat regardless of run size. A window of 0 keeps the whole workbook in
+ * memory as before.
+ *
+ * <p>The derived loan columns are computed as each record is written and
+ * stored as numeric cells with currency or percent formats.
+ */
+final class XlsxRecordWriter implements RecordSink {
+    private static final String[] HEADERS = RecordSchema.outputColumns();
+
+    private final Path outputFile;
+    private final Workbook workbook;
+    private final Sheet sheet;
+    private final LoanCalculator calculator;
+    private final CellStyle[] derivedStyles = new CellStyle[LoanCalculator.COLUMNS.length];
+    private int nextRow;
+
+    XlsxRecordWriter(Path outputFile, int rowAccessWindow, boolean compressTempFiles, LoanCalculator calculator) {
+        this.outputFile = outputFile;
+        this.calculator = calculator;
+        if (rowAccessWindow > 0) {
+            SXSSFWorkbook streaming = new SXSSFWorkbook(rowAccessWindow);
+            streaming.setCompressTempFiles(compressTempFiles);
+            this.workbook = streaming;
+            this.sheet = streaming.createSheet("Sheet1");
+        } else {
+            this.workbook = new XSSFWorkbook();
+            this.sheet = workbook.createSheet("Sheet1");
+        }
+        createOutputHeader(sheet);
+        this.nextRow = 1;
+
+        CellStyle currency = workbook.createCellStyle();
+        currency.setDataFormat(workbook.createDataFormat().getFormat("$#,##0.00"));
+        CellStyle percent = workbook.createCellStyle();
+        percent.setDataFormat(workbook.createDataFormat().getFormat("0.00%"));
+        for (int slot = 0; slot < LoanCalculator.COLUMNS.length; slot++) {
+            derivedStyles[slot] = LoanCalculator.RATIO[slot] ? percent : currency;
+        }
+    }
+
+    @Override
+    public Path getOutputFile() {
+        return outputFile;
+    }
+
+    @Override
+    public void write(TaxRecord record) {
+        calculator.compute(record);
+        writeRecordToSheet(sheet.createRow(nextRow++), record);
+    }
+
+    /**
+     * Writes the finished workbook to the output file. Streaming temp files are
+     * removed by {@link #close()}.
+     */
+    @Override
+    public void finish() throws IOException {
+        try (OutputStream out = Files.newOutputStream(outputFile)) {
+            workbook.write(out);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (workbook instanceof SXSSFWorkbook) {
+            ((SXSSFWorkbook) workbook).dispose();
+        }
+        workbook.close();
+    }
+
+    private static void createOutputHeader(Sheet sheet) {
+        // One style for every header cell; the workbook's style table is small and shared
+        CellStyle headerStyle = sheet.getWorkbook().createCellStyle();
+        Font headerFont = sheet.getWorkbook().createFont();
+        headerFont.setBold(true);
+        headerFont.setFontHeightInPoints((short) 11);
+        headerStyle.setFont(headerFont);
+        headerStyle.setFillForegroundColor(IndexedColors.LIGHT_BLUE.getIndex());
+        headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        headerStyle.setBorderBottom(BorderStyle.THIN);
+        headerStyle.setBorderTop(BorderStyle.THIN);
+        headerStyle.setBorderLeft(BorderStyle.THIN);
+        headerStyle.setBorderRight(BorderStyle.THIN);
+
+        Row headerRow = sheet.createRow(0);
+        for (int i = 0; i < HEADERS.length; i++) {
+            Cell cell = headerRow.createCell(i);
+            cell.setCellValue(HEADERS[i]);
+            cell.setCellStyle(headerStyle);
+        }
+
+        // Size columns to the header text; autoSizeColumn needs AWT font metrics,
+        // which headless batch runs should not load
+        for (int i = 0; i < HEADERS.length; i++) {
+            sheet.setColumnWidth(i, Math.min(255, HEADERS[i].length() + 4) * 256);
+        }
+    }
+
+    private void writeRecordToSheet(Row row, TaxRecord record) {
+        // Output columns are the first HEADERS.length slots of every record
+        for (int i = 0; i < HEADERS.length; i++) {
+            Cell cell = row.createCell(i);
+            int slot = LoanCalculator.slotOf(i);
+            double derived = slot >= 0 ? calculator.value(slot) : Double.NaN;
+            if (Double.isNaN(derived)) {
+                // Not computable: keep what the input row carried
+                cell.setCellValue(record.get(i));
+            } else {
+                cell.setCellValue(derived);
+                cell.setCellStyle(derivedStyles[slot]);
+            }
+        }
+    }
+}
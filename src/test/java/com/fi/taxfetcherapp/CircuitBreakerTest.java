@@ -0,0 +1,77 @@
+package com.fi.taxfetcherapp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+    private static final Duration COOLDOWN = Duration.ofMillis(50);
+
+    @Test
+    void opensOnceFailureRateCrossesThreshold() throws InterruptedException {
+        CircuitBreaker breaker = breaker();
+        for (int i = 0; i < 3; i++) {
+            assertFalse(breaker.onFailure(breaker.acquirePermission()));
+        }
+        assertTrue(breaker.onFailure(breaker.acquirePermission()));
+        assertTrue(breaker.isOpen());
+    }
+
+    @Test
+    void trialSuccessClosesCircuit() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker();
+        assertEquals(CircuitBreaker.Permission.TRIAL, breaker.acquirePermission());
+        breaker.onSuccess(CircuitBreaker.Permission.TRIAL);
+        assertFalse(breaker.isOpen());
+        assertEquals(CircuitBreaker.Permission.REGULAR, breaker.acquirePermission());
+    }
+
+    @Test
+    void lateRequestsDoNotDecideHalfOpenCircuit() throws InterruptedException {
+        CircuitBreaker breaker = breaker();
+        // Admitted while closed, finishing after the circuit has opened and gone half-open
+        CircuitBreaker.Permission late = breaker.acquirePermission();
+        open(breaker);
+        Thread.sleep(COOLDOWN.toMillis() * 2);
+        CircuitBreaker.Permission trial = breaker.acquirePermission();
+        assertEquals(CircuitBreaker.Permission.TRIAL, trial);
+
+        breaker.onSuccess(late);
+        assertTrue(breaker.isOpen(), "a late success must not close the circuit");
+        assertFalse(breaker.onFailure(late), "a late failure must not reopen the circuit");
+        assertTrue(breaker.isOpen());
+
+        assertTrue(breaker.onFailure(trial));
+        assertTrue(breaker.getRemainingCooldown().toMillis() > COOLDOWN.toMillis(),
+                "a failed trial doubles the cooldown");
+    }
+
+    @Test
+    void ignoredTrialLetsAnotherThrough() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker();
+        CircuitBreaker.Permission trial = breaker.acquirePermission();
+        breaker.onIgnored(trial);
+        assertEquals(CircuitBreaker.Permission.TRIAL, breaker.acquirePermission());
+    }
+
+    private static CircuitBreaker breaker() {
+        return new CircuitBreaker("localhost", 4, 4, 0.5, COOLDOWN, Duration.ofSeconds(1));
+    }
+
+    // Opened and past its cooldown, so the next caller gets the trial
+    private static CircuitBreaker openBreaker() throws InterruptedException {
+        CircuitBreaker breaker = breaker();
+        open(breaker);
+        Thread.sleep(COOLDOWN.toMillis() * 2);
+        return breaker;
+    }
+
+    private static void open(CircuitBreaker breaker) throws InterruptedException {
+        while (!breaker.onFailure(breaker.acquirePermission())) {
+            // Fill the window with failures
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.fi.taxfetcherapp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class FetchEngineTest {
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void resultsArriveInInputOrder() throws Exception {
+        FetchEngine engine = new FetchEngine(executor, 4, 2);
+        List<Integer> inputs = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            inputs.add(i);
+        }
+        List<Integer> results = new ArrayList<>();
+        engine.run(inputs, (input, permit) -> {
+            sleepQuietly((50 - input) % 7);
+            return input;
+        }, input -> input * 2, results::add);
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i * 2, results.get(i));
+        }
+    }
+
+    // With one permit, the second stage can only start while the first waits without its permit
+    @Test
+    void waitingStageGivesItsPermitToTheNext() throws Exception {
+        FetchEngine engine = new FetchEngine(executor, 1, 1);
+        CountDownLatch secondStarted = new CountDownLatch(1);
+        List<String> results = new ArrayList<>();
+        engine.run(List.of("first", "second"), (input, permit) -> {
+            if (input.equals("second")) {
+                secondStarted.countDown();
+                return input;
+            }
+            permit.release();
+            try {
+                boolean started = secondStarted.await(5, TimeUnit.SECONDS);
+                permit.reacquire();
+                return started ? input : "first timed out";
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return "first interrupted";
+            }
+        }, input -> input, results::add);
+        assertEquals(List.of("first", "second"), results);
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
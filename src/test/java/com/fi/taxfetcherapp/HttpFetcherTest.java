@@ -0,0 +1,114 @@
+package com.fi.taxfetcherapp;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class HttpFetcherTest {
+    private static final byte[] PAGE = "<html><body>Total Market Value: $120,810</body></html>"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private HttpServer server;
+    private HttpFetcher fetcher;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/gzip", exchange -> respond(exchange, 200, "gzip", gzip(PAGE)));
+        server.createContext("/cached", exchange -> {
+            if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.getResponseHeaders().set("ETag", "\"v1\"");
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+            } else {
+                respond(exchange, 200, null, PAGE);
+            }
+        });
+        server.createContext("/missing", exchange -> respond(exchange, 404, null, new byte[0]));
+        server.createContext("/brotli", exchange -> respond(exchange, 200, "br", PAGE));
+        server.start();
+        fetcher = new HttpFetcher(Duration.ofSeconds(5), Duration.ofSeconds(5), new PipelineMetrics());
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void asyncFetchDecodesLikeBlockingFetch() throws Exception {
+        HttpFetcher.FetchResponse async = fetcher.fetchAsync(url("/gzip")).get(5, TimeUnit.SECONDS);
+        HttpFetcher.FetchResponse blocking = fetcher.fetch(url("/gzip"));
+
+        assertEquals(200, async.getStatusCode());
+        assertArrayEquals(PAGE, async.getBody());
+        assertArrayEquals(blocking.getBody(), async.getBody());
+    }
+
+    @Test
+    void asyncConditionalFetchReportsNotModified() throws Exception {
+        HttpFetcher.FetchResponse response = fetcher.fetchAsync(url("/cached"), "\"v1\"", null)
+                .get(5, TimeUnit.SECONDS);
+
+        assertTrue(response.isNotModified());
+        assertEquals(0, response.getBody().length);
+        assertEquals("\"v1\"", response.getETag());
+    }
+
+    @Test
+    void asyncErrorStatusFailsWithHttpStatusException() {
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> fetcher.fetchAsync(url("/missing")).get(5, TimeUnit.SECONDS));
+
+        HttpStatusException cause = assertInstanceOf(HttpStatusException.class, failure.getCause());
+        assertEquals(404, cause.getStatusCode());
+    }
+
+    @Test
+    void asyncUnsupportedEncodingIsUnreadable() {
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> fetcher.fetchAsync(url("/brotli")).get(5, TimeUnit.SECONDS));
+
+        assertInstanceOf(UnreadableResponseException.class, failure.getCause());
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String encoding, byte[] body) throws IOException {
+        if (encoding != null) {
+            exchange.getResponseHeaders().set("Content-Encoding", encoding);
+        }
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(body);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,64 @@
+package com.fi.taxfetcherapp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+    private static final long MAX_MICROS = (1L << 37) - 1;
+
+    @Test
+    void smallValuesHaveTheirOwnBuckets() {
+        for (long micros = 0; micros < 32; micros++) {
+            assertEquals(micros, LatencyHistogram.indexOf(micros));
+            assertEquals(micros, LatencyHistogram.upperBoundOf((int) micros));
+        }
+    }
+
+    @Test
+    void bucketsAreContiguousAndIncreasing() {
+        int last = LatencyHistogram.indexOf(MAX_MICROS);
+        assertEquals(MAX_MICROS, LatencyHistogram.upperBoundOf(last));
+        for (int index = 1; index <= last; index++) {
+            long lower = LatencyHistogram.upperBoundOf(index - 1) + 1;
+            assertEquals(index, LatencyHistogram.indexOf(lower), "first value of bucket " + index);
+            assertEquals(index, LatencyHistogram.indexOf(LatencyHistogram.upperBoundOf(index)),
+                    "last value of bucket " + index);
+        }
+    }
+
+    @Test
+    void bucketHoldsValueWithinOneSixteenth() {
+        Random random = new Random(1);
+        for (int i = 0; i < 100_000; i++) {
+            long micros = random.nextLong() & MAX_MICROS;
+            long upper = LatencyHistogram.upperBoundOf(LatencyHistogram.indexOf(micros));
+            assertTrue(upper >= micros, micros + " above its bucket's bound " + upper);
+            assertTrue(upper - micros <= micros / 16, micros + " too far below its bucket's bound " + upper);
+        }
+    }
+
+    @Test
+    void percentilesAreBucketBoundsCappedAtMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int millis = 1; millis <= 100; millis++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(50.5, histogram.getMeanMillis(), 1e-9);
+        double median = histogram.getPercentileMillis(50);
+        assertTrue(median >= 50 && median <= 50 * 17 / 16.0, "p50 " + median);
+        assertEquals(100.0, histogram.getPercentileMillis(100), 1e-9);
+        assertEquals(100.0, histogram.getMaxMillis(), 1e-9);
+    }
+
+    @Test
+    void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentileMillis(99), 1e-9);
+        assertEquals(0, histogram.getMeanMillis(), 1e-9);
+    }
+}
@@ -0,0 +1,39 @@
+package com.fi.taxfetcherapp;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.http.HttpTimeoutException;
+import java.util.zip.ZipException;
+import org.junit.jupiter.api.Test;
+
+class RetryingFetcherTest {
+    @Test
+    void transportFailuresAreRetried() {
+        assertTrue(RetryingFetcher.isRetryable(new HttpTimeoutException("request timed out")));
+        assertTrue(RetryingFetcher.isRetryable(new ConnectException("Connection refused")));
+        assertTrue(RetryingFetcher.isRetryable(new EOFException("EOF reached while reading")));
+        assertTrue(RetryingFetcher.isRetryable(new IOException("HTTP/1.1 header parser received no bytes")));
+    }
+
+    @Test
+    void throttlingAndServerErrorsAreRetried() {
+        for (int status : new int[] {408, 429, 500, 502, 503, 504}) {
+            assertTrue(RetryingFetcher.isRetryable(new HttpStatusException("http://localhost/", status, null)),
+                    "HTTP " + status);
+        }
+    }
+
+    @Test
+    void badRequestsAndUnreadableResponsesFailAtOnce() {
+        for (int status : new int[] {400, 403, 404, 410}) {
+            assertFalse(RetryingFetcher.isRetryable(new HttpStatusException("http://localhost/", status, null)),
+                    "HTTP " + status);
+        }
+        assertFalse(RetryingFetcher.isRetryable(new UnreadableResponseException("Unsupported Content-Encoding: br")));
+        assertFalse(RetryingFetcher.isRetryable(new ZipException("Not in GZIP format")));
+    }
+}
@@ -0,0 +1,116 @@
+package com.fi.taxfetcherapp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RunJournalTest {
+    private static final RecordSchema SCHEMA = RecordSchema.forInputHeaders(List.of("JDX", "TAXID"));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restoresSuccessfulAccountsAfterReopen() throws IOException {
+        File input = directory.resolve("input.xlsx").toFile();
+        TaxRecord original = row("050731040290");
+        TaxRecord fetched = original.copy();
+        fetched.set(RecordSchema.FETCH_STATUS, "SUCCESS");
+        fetched.set(RecordSchema.CURRENT_OWNER_NAME, "SMITH JOHN\t& JANE\nJR = \\ESTATE");
+        fetched.set(RecordSchema.CURRENT_TAX_DUE, "$940.12");
+        try (RunJournal journal = RunJournal.open(directory, input)) {
+            journal.append("050731040290", original, fetched);
+        }
+
+        try (RunJournal journal = RunJournal.open(directory, input)) {
+            assertEquals(1, journal.getResumableCount());
+            TaxRecord restored = journal.restore("050731040290", original);
+            assertNotNull(restored);
+            for (int column = 0; column < SCHEMA.size(); column++) {
+                assertEquals(fetched.get(column), restored.get(column), SCHEMA.nameAt(column));
+            }
+            assertNull(journal.restore("050731040291", row("050731040291")));
+        }
+    }
+
+    @Test
+    void latestEntryForAnAccountWins() throws IOException {
+        File input = directory.resolve("input.xlsx").toFile();
+        TaxRecord original = row("A1");
+        TaxRecord succeeded = original.copy();
+        succeeded.set(RecordSchema.FETCH_STATUS, "SUCCESS");
+        TaxRecord failed = original.copy();
+        failed.set(RecordSchema.FETCH_STATUS, "FAILED: timeout");
+        try (RunJournal journal = RunJournal.open(directory, input)) {
+            journal.append("A1", original, succeeded);
+            journal.append("A1", original, failed);
+            journal.append("B2", original, failed);
+            journal.append("B2", original, succeeded);
+        }
+
+        try (RunJournal journal = RunJournal.open(directory, input)) {
+            assertEquals(1, journal.getResumableCount());
+            assertNull(journal.restore("A1", original));
+            assertNotNull(journal.restore("B2", original));
+        }
+    }
+
+    @Test
+    void tornLineIsIgnoredAndNextEntryStartsOnItsOwnLine() throws IOException {
+        File input = directory.resolve("input.xlsx").toFile();
+        TaxRecord original = row("A1");
+        TaxRecord succeeded = original.copy();
+        succeeded.set(RecordSchema.FETCH_STATUS, "SUCCESS");
+        Path journalFile;
+        try (RunJournal journal = RunJournal.open(directory, input)) {
+            journal.append("A1", original, succeeded);
+            journalFile = journal.getJournalFile();
+        }
+        // A crash part way through the next entry
+        Files.write(journalFile, "B2\tFETCH_STATUS=SUCC".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        try (RunJournal journal = RunJournal.open(directory, input)) {
+            assertEquals(1, journal.getResumableCount());
+            journal.append("C3", original, succeeded);
+        }
+        try (RunJournal journal = RunJournal.open(directory, input)) {
+            assertEquals(2, journal.getResumableCount());
+            assertNull(journal.restore("B2", original));
+            assertNotNull(journal.restore("C3", original));
+        }
+    }
+
+    @Test
+    void completeRemovesTheJournal() throws IOException {
+        File input = directory.resolve("input.xlsx").toFile();
+        RunJournal journal = RunJournal.open(directory, input);
+        TaxRecord original = row("A1");
+        TaxRecord succeeded = original.copy();
+        succeeded.set(RecordSchema.FETCH_STATUS, "SUCCESS");
+        journal.append("A1", original, succeeded);
+        journal.complete();
+        assertFalse(Files.exists(journal.getJournalFile()));
+        try (RunJournal reopened = RunJournal.open(directory, input)) {
+            assertEquals(0, reopened.getResumableCount());
+        }
+    }
+
+    private static TaxRecord row(String taxId) {
+        TaxRecord record = new TaxRecord(SCHEMA);
+        record.set(RecordSchema.JDX, "Bexar");
+        record.set("TAXID", taxId);
+        return record;
+    }
+}
@@ -0,0 +1,130 @@
+package com.fi.taxfetcherapp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ShardPlanTest {
+    private static final int SHARDS = 3;
+    // Duplicates in both account forms, a blank TAXID and a row for another county
+    private static final String[][] ROWS = {
+            {"Bexar", "050731040290"}, {"Bexar", "050731020620"}, {"Bexar", ""}, {"Bexar", "ACCT050731040290"},
+            {"Dallas", "00000776533000000"}, {"Bexar", "050731120020"}, {"", "050731020620"},
+            {"Bexar", "050731150110"}, {"Bexar", "050731040290"}, {"Bexar", "050731160200"}
+    };
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void mergeRestoresInputOrderAcrossShards() throws Exception {
+        ShardPlan plan = ShardPlan.create(directory.resolve("shards"), writeInput(), SHARDS,
+                CountyAdapters.find("Bexar"));
+        Set<Integer> usedShards = new HashSet<>();
+        for (int shard = 0; shard < SHARDS; shard++) {
+            if (fetchShard(plan, shard, false) > 0) {
+                usedShards.add(shard);
+            }
+        }
+        assertTrue(usedShards.size() > 1, "rows should spread over several shards");
+
+        Path merged = plan.merge(directory.resolve("merged"), RunOptions.FORMAT_XLSX, 100,
+                LoanCalculator.forOptions(new RunOptions()));
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < ROWS.length; i++) {
+            if (!ROWS[i][1].isEmpty()) {
+                expected.add("row-" + i);
+            }
+        }
+        List<String> actual = new ArrayList<>();
+        try (ExcelRecordReader output = new ExcelRecordReader(merged.toFile())) {
+            while (output.hasNext()) {
+                TaxRecord row = output.next();
+                actual.add(row.get("UNIQUE"));
+                assertEquals("fetched " + row.get("UNIQUE"), row.get(RecordSchema.CURRENT_OWNER_NAME));
+            }
+        }
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void mergeRejectsShardOutputMissingARow() throws Exception {
+        ShardPlan plan = ShardPlan.create(directory.resolve("shards"), writeInput(), SHARDS,
+                CountyAdapters.find("Bexar"));
+        // The first shard with any rows loses its last one
+        boolean dropped = false;
+        for (int shard = 0; shard < SHARDS; shard++) {
+            if (fetchShard(plan, shard, !dropped) > 0) {
+                dropped = true;
+            }
+        }
+        assertThrows(IllegalStateException.class, () -> plan.merge(directory.resolve("merged"),
+                RunOptions.FORMAT_XLSX, 100, LoanCalculator.forOptions(new RunOptions())));
+    }
+
+    private File writeInput() throws IOException {
+        File input = directory.resolve("input.xlsx").toFile();
+        try (Workbook workbook = new XSSFWorkbook();
+             OutputStream out = Files.newOutputStream(input.toPath())) {
+            Sheet sheet = workbook.createSheet("Sheet1");
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("JDX");
+            header.createCell(1).setCellValue("TAXID");
+            header.createCell(2).setCellValue("UNIQUE");
+            for (int i = 0; i < ROWS.length; i++) {
+                Row row = sheet.createRow(i + 1);
+                row.createCell(0).setCellValue(ROWS[i][0]);
+                row.createCell(1).setCellValue(ROWS[i][1]);
+                row.createCell(2).setCellValue("row-" + i);
+            }
+            workbook.write(out);
+        }
+        return input;
+    }
+
+    // Stands in for a worker: one output row per shard input row, in the shard's order; returns the input rows
+    private static int fetchShard(ShardPlan plan, int shard, boolean dropLast) throws IOException {
+        List<TaxRecord> rows = new ArrayList<>();
+        try (ExcelRecordReader input = new ExcelRecordReader(plan.shardInput(shard).toFile())) {
+            while (input.hasNext()) {
+                rows.add(input.next());
+            }
+        }
+        int inputRows = rows.size();
+        if (dropLast && !rows.isEmpty()) {
+            rows.remove(rows.size() - 1);
+        }
+        Files.createDirectories(plan.shardOutputDirectory(shard));
+        Path output = plan.shardOutputDirectory(shard).resolve("output.xlsx");
+        try (RecordSink sink = RecordSinks.open(RunOptions.FORMAT_XLSX, output, 100,
+                LoanCalculator.forOptions(new RunOptions()))) {
+            for (TaxRecord row : rows) {
+                String key = ShardPlan.accountKey(row, plan.getCounty());
+                assertEquals(shard, ShardPlan.shardOf(key, SHARDS));
+                row.set(RecordSchema.ACCOUNT_NUMBER, key.substring(key.indexOf('/') + 1));
+                row.set(RecordSchema.CURRENT_OWNER_NAME, "fetched " + row.get("UNIQUE"));
+                sink.write(row);
+            }
+            sink.finish();
+        }
+        plan.markDone(shard, output);
+        return inputRows;
+    }
+}
@@ -0,0 +1,86 @@
+package com.fi.taxfetcherapp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ShardWorkerTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void staleLockIsClaimedAndFreshLockIsNot() throws IOException {
+        Path stale = writeLock("shard-0.lock", "dead-worker");
+        makeStale(stale);
+        Path fresh = writeLock("shard-1.lock", "live-worker");
+        ShardWorker worker = new ShardWorker(null, null);
+
+        assertTrue(worker.claim(stale));
+        assertNotEquals("dead-worker", read(stale));
+        assertFalse(worker.claim(fresh));
+        assertEquals("live-worker", read(fresh));
+    }
+
+    // Worker A saw the lock stale, but B took the shard over first; A renamed B's fresh lock aside, and
+    // before A could move it back C found no lock and claimed the shard.
+    @Test
+    void lockMovedAsideIsNotDeletedWhenTheShardWasClaimedAgain() throws IOException {
+        Path lock = directory.resolve("shard-0.lock");
+        Path aside = writeLock("shard-0.lock.a.stale", "worker-b");
+        writeLock("shard-0.lock", "worker-c");
+
+        new ShardWorker(null, null).giveBack(lock, aside);
+
+        assertEquals("worker-c", read(lock));
+        assertEquals("worker-b", read(aside));
+    }
+
+    @Test
+    void lockMovedAsideIsPutBack() throws IOException {
+        Path lock = directory.resolve("shard-0.lock");
+        Path aside = writeLock("shard-0.lock.a.stale", "worker-b");
+
+        new ShardWorker(null, null).giveBack(lock, aside);
+
+        assertEquals("worker-b", read(lock));
+        assertFalse(Files.exists(aside));
+    }
+
+    @Test
+    void sweepRemovesOnlyStaleAsideLocks() throws IOException {
+        Path staleAside = writeLock("shard-0.lock.a.stale", "worker-b");
+        makeStale(staleAside);
+        Path freshAside = writeLock("shard-1.lock.b.stale", "worker-d");
+        Path staleLock = writeLock("shard-2.lock", "worker-e");
+        makeStale(staleLock);
+
+        ShardWorker.sweepAsideLocks(directory);
+
+        assertFalse(Files.exists(staleAside));
+        assertTrue(Files.exists(freshAside));
+        // Stale locks are taken over by claim, which checks their owner first
+        assertTrue(Files.exists(staleLock));
+    }
+
+    private Path writeLock(String name, String owner) throws IOException {
+        return Files.write(directory.resolve(name), owner.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void makeStale(Path lock) throws IOException {
+        long refreshed = System.currentTimeMillis() - ShardWorker.STALE_LOCK_AGE.toMillis() - 1000;
+        Files.setLastModifiedTime(lock, FileTime.fromMillis(refreshed));
+    }
+
+    private static String read(Path lock) throws IOException {
+        return new String(Files.readAllBytes(lock), StandardCharsets.UTF_8);
+    }
+}